@@ -0,0 +1,21 @@
+package com.orion.prototype.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// --name=value options of the load tools; anything else is ignored
+final class CommandLine {
+
+    private CommandLine() {
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
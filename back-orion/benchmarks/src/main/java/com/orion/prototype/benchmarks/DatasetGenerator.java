@@ -0,0 +1,399 @@
+package com.orion.prototype.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Random;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Fills an empty schema (created by the application, ddl-auto) with a
+ * synthetic dataset through batched JDBC inserts. Volumes default to 100k
+ * users, 500 topics, 2M posts and 10M comments, all multiplied by --scale.
+ * Activity is skewed: a few users write most posts and comments, a few
+ * topics get most posts and subscribers, and a few posts get most comments.
+ *
+ * Every user is user{n} / user{n}@orion.dev with the password {@value #PASSWORD}.
+ *
+ * Run it before starting the application, which moves the id sequences
+ * past the generated rows at startup.
+ *
+ * Options: --jdbc-url, --db-user, --db-password, --scale, --batch, --seed.
+ * Against MySQL, add rewriteBatchedStatements=true to the URL (done when missing).
+ */
+public final class DatasetGenerator {
+
+    public static final String PASSWORD = "Passw0rd!";
+
+    private static final String[] WORDS = ("java spring angular docker kotlin api cache index thread query "
+            + "latence mémoire base données serveur client requête réponse projet équipe test build "
+            + "déploiement performance sécurité jeton session utilisateur article sujet commentaire "
+            + "pourquoi comment mais donc alors aussi très bien plutôt vraiment idée question").split(" ");
+
+    private final Volumes volumes;
+    private final int batchSize;
+    private final long seed;
+
+    public DatasetGenerator(Volumes volumes, int batchSize, long seed) {
+        this.volumes = volumes;
+        this.batchSize = batchSize;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = CommandLine.parse(args);
+        String url = options.getOrDefault("jdbc-url", "jdbc:mysql://localhost:3306/orion_dev");
+        if (url.startsWith("jdbc:mysql:") && !url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        DatasetGenerator generator = new DatasetGenerator(
+                Volumes.scaled(Double.parseDouble(options.getOrDefault("scale", "1"))),
+                Integer.parseInt(options.getOrDefault("batch", "5000")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+
+        try (Connection connection = DriverManager.getConnection(url,
+                options.getOrDefault("db-user", "dev"), options.getOrDefault("db-password", "devpass"))) {
+            generator.generate(connection);
+        }
+    }
+
+    public Volumes volumes() {
+        return volumes;
+    }
+
+    // The schema must exist and be empty: ids are assigned here, 1..n per table
+    public void generate(Connection connection) throws SQLException {
+        if (count(connection, "users") > 0) {
+            throw new IllegalStateException("La base contient déjà des utilisateurs, partir d'un schéma vide");
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            Random random = new Random(seed);
+            Instant end = Instant.now();
+            Instant start = end.minus(Duration.ofDays(365));
+
+            // Rank -> id maps, so the most active users and topics are spread over the id range
+            int[] userByRank = shuffledIds(volumes.users(), random);
+            int[] topicByRank = shuffledIds(volumes.topics(), random);
+            Zipf userActivity = new Zipf(volumes.users(), 1.0);
+            Zipf topicPopularity = new Zipf(volumes.topics(), 1.1);
+
+            insertUsers(connection);
+            insertTopics(connection);
+            insertSubscriptions(connection, random, topicByRank, topicPopularity);
+            insertPosts(connection, random, start, end, userByRank, userActivity, topicByRank, topicPopularity);
+            insertComments(connection, random, start, end, userByRank, userActivity);
+            insertRefreshTokens(connection, random, end);
+            restartIdentities(connection);
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void insertUsers(Connection connection) throws SQLException {
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        try (Batch batch = new Batch(connection, "users",
+                "insert into users (id, username, email, password, token_version) values (?, ?, ?, ?, 0)")) {
+            for (int id = 1; id <= volumes.users(); id++) {
+                PreparedStatement statement = batch.statement();
+                statement.setLong(1, id);
+                statement.setString(2, "user" + id);
+                statement.setString(3, "user" + id + "@orion.dev");
+                statement.setString(4, hash);
+                batch.add();
+            }
+        }
+    }
+
+    private void insertTopics(Connection connection) throws SQLException {
+        try (Batch batch = new Batch(connection, "topics",
+                "insert into topics (id, name, description) values (?, ?, ?)")) {
+            for (int id = 1; id <= volumes.topics(); id++) {
+                PreparedStatement statement = batch.statement();
+                statement.setLong(1, id);
+                statement.setString(2, "topic-" + id);
+                statement.setString(3, "Sujet de test n°" + id);
+                batch.add();
+            }
+        }
+    }
+
+    // Each user follows 1 or more distinct topics, mostly popular ones
+    private void insertSubscriptions(Connection connection, Random random, int[] topicByRank, Zipf topicPopularity)
+            throws SQLException {
+        long id = 0;
+        BitSet followed = new BitSet(volumes.topics() + 1);
+        try (Batch batch = new Batch(connection, "subscriptions",
+                "insert into subscriptions (id, user_id, topic_id) values (?, ?, ?)")) {
+            for (int userId = 1; userId <= volumes.users(); userId++) {
+                int wanted = Math.min(volumes.topics(), 1 + exponential(random, volumes.subscriptionsPerUser() - 1));
+                followed.clear();
+                int attempts = 0;
+                while (followed.cardinality() < wanted && attempts++ < wanted * 20) {
+                    int topicId = topicByRank[topicPopularity.sample(random)];
+                    if (followed.get(topicId)) {
+                        continue;
+                    }
+                    followed.set(topicId);
+                    PreparedStatement statement = batch.statement();
+                    statement.setLong(1, ++id);
+                    statement.setLong(2, userId);
+                    statement.setLong(3, topicId);
+                    batch.add();
+                }
+            }
+        }
+    }
+
+    // Creation dates grow with the id, like rows written by the application
+    private void insertPosts(Connection connection, Random random, Instant start, Instant end, int[] userByRank,
+            Zipf userActivity, int[] topicByRank, Zipf topicPopularity) throws SQLException {
+        try (Batch batch = new Batch(connection, "posts",
+                "insert into posts (id, title, content, created_at, updated_at, version, author_id, topic_id)"
+                        + " values (?, ?, ?, ?, null, 0, ?, ?)")) {
+            for (int id = 1; id <= volumes.posts(); id++) {
+                PreparedStatement statement = batch.statement();
+                statement.setLong(1, id);
+                statement.setString(2, capitalize(text(random, 4 + random.nextInt(8))));
+                statement.setString(3, capitalize(text(random, 30 + random.nextInt(120))));
+                statement.setTimestamp(4, Timestamp.from(postCreatedAt(id, start, end)));
+                statement.setLong(5, userByRank[userActivity.sample(random)]);
+                statement.setLong(6, topicByRank[topicPopularity.sample(random)]);
+                batch.add();
+            }
+        }
+    }
+
+    // A few posts collect most of the comments; each comment follows its post by up to a week
+    private void insertComments(Connection connection, Random random, Instant start, Instant end, int[] userByRank,
+            Zipf userActivity) throws SQLException {
+        int[] postByRank = shuffledIds(volumes.posts(), random);
+        Zipf postPopularity = new Zipf(volumes.posts(), 0.9);
+        long week = Duration.ofDays(7).toSeconds();
+        try (Batch batch = new Batch(connection, "comments",
+                "insert into comments (id, content, created_at, version, author_id, post_id)"
+                        + " values (?, ?, ?, 0, ?, ?)")) {
+            for (int id = 1; id <= volumes.comments(); id++) {
+                int postId = postByRank[postPopularity.sample(random)];
+                Instant createdAt = postCreatedAt(postId, start, end).plusSeconds((long) (random.nextDouble() * week));
+                PreparedStatement statement = batch.statement();
+                statement.setLong(1, id);
+                statement.setString(2, capitalize(text(random, 5 + random.nextInt(30))));
+                statement.setTimestamp(3, Timestamp.from(createdAt.isAfter(end) ? end : createdAt));
+                statement.setLong(4, userByRank[userActivity.sample(random)]);
+                statement.setLong(5, postId);
+                batch.add();
+            }
+        }
+    }
+
+    // Some users have a refresh token, a part of them already expired for the purge job
+    private void insertRefreshTokens(Connection connection, Random random, Instant now) throws SQLException {
+        long id = 0;
+        byte[] bytes = new byte[32];
+        try (Batch batch = new Batch(connection, "refresh_tokens",
+                "insert into refresh_tokens (id, token, expiry_date, user_id) values (?, ?, ?, ?)")) {
+            for (int userId = 1; userId <= volumes.users(); userId++) {
+                if (random.nextDouble() >= volumes.refreshTokenShare()) {
+                    continue;
+                }
+                random.nextBytes(bytes);
+                PreparedStatement statement = batch.statement();
+                statement.setLong(1, ++id);
+                statement.setString(2, sha256(bytes));
+                statement.setTimestamp(3, Timestamp.from(now.plus(Duration.ofHours(random.nextInt(14 * 24) - 7 * 24))));
+                statement.setLong(4, userId);
+                batch.add();
+            }
+        }
+    }
+
+    // MySQL moves AUTO_INCREMENT past explicit ids by itself, H2 does not. Posts and comments
+    // use sequences instead, which the application aligns at startup (IdSequences)
+    private static void restartIdentities(Connection connection) throws SQLException {
+        if (!connection.getMetaData().getDatabaseProductName().equals("H2")) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String table : new String[] { "users", "topics", "subscriptions", "refresh_tokens" }) {
+                long next = maxId(connection, table) + 1;
+                statement.execute("alter table " + table + " alter column id restart with " + next);
+            }
+        }
+    }
+
+    private Instant postCreatedAt(int postId, Instant start, Instant end) {
+        long span = Duration.between(start, end).toSeconds();
+        return start.plusSeconds(span * (postId - 1) / Math.max(1, volumes.posts()));
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private static int exponential(Random random, double mean) {
+        return mean <= 0 ? 0 : (int) (-Math.log(1 - random.nextDouble()) * mean);
+    }
+
+    private static int[] shuffledIds(int n, Random random) {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            String token = HexFormat.of().formatHex(bytes);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static long count(Connection connection, String table) throws SQLException {
+        return single(connection, "select count(*) from " + table);
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        return single(connection, "select coalesce(max(id), 0) from " + table);
+    }
+
+    private static long single(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    /**
+     * Row counts of a dataset. Subscriptions are an average per user and
+     * refresh tokens a share of the users.
+     */
+    public record Volumes(int users, int topics, int posts, int comments, double subscriptionsPerUser,
+            double refreshTokenShare) {
+
+        public static Volumes scaled(double scale) {
+            return new Volumes(
+                    Math.max(1, (int) (100_000 * scale)),
+                    Math.max(1, (int) (500 * scale)),
+                    Math.max(1, (int) (2_000_000 * scale)),
+                    (int) (10_000_000 * scale),
+                    5,
+                    0.3);
+        }
+    }
+
+    /**
+     * Zipf-distributed ranks in [0, n): rank 0 is the most frequent. Sampling
+     * is a binary search in the precomputed cumulative distribution.
+     */
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            double target = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // One table's inserts: executed every batchSize rows and committed, with a progress line
+    private final class Batch implements AutoCloseable {
+
+        private final Connection connection;
+        private final String table;
+        private final PreparedStatement statement;
+        private final long started = System.nanoTime();
+        private long rows;
+
+        Batch(Connection connection, String table, String sql) throws SQLException {
+            this.connection = connection;
+            this.table = table;
+            this.statement = connection.prepareStatement(sql);
+        }
+
+        PreparedStatement statement() {
+            return statement;
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            if (++rows % batchSize == 0) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            statement.executeBatch();
+            connection.commit();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("%-16s %,12d rows in %6.1f s (%,.0f rows/s)%n", table, rows, seconds, rows / seconds);
+        }
+    }
+}
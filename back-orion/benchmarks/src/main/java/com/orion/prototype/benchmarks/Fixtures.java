@@ -0,0 +1,57 @@
+package com.orion.prototype.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.orion.prototype.entity.Comment;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+
+// In-memory entities shared by the benchmarks, no database involved
+final class Fixtures {
+
+    // 256-bit key, same shape as app.security.jwt.secret
+    static final String JWT_SECRET = Base64.getEncoder()
+            .encodeToString("orion-benchmarks-secret-0123456789abcdef".getBytes());
+
+    static final String EMAIL = "bench@orion.dev";
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    static User user() {
+        return User.builder().id(1L).username("author").email(EMAIL).build();
+    }
+
+    static Post post(long id, int commentCount) {
+        User author = user();
+        User reader = User.builder().id(2L).username("reader").email("reader@orion.dev").build();
+        Topic topic = Topic.builder().id(1L).name("Java").description("Tout sur Java").build();
+
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle("Titre du post " + id);
+        post.setContent("Contenu du post ".repeat(40));
+        post.setCreatedAt(NOW.minusMinutes(id));
+        post.setAuthor(author);
+        post.setTopic(topic);
+
+        Set<Comment> comments = new HashSet<>();
+        for (int i = 0; i < commentCount; i++) {
+            Comment comment = new Comment();
+            comment.setId(id * 1_000 + i);
+            comment.setContent("Commentaire numéro " + i);
+            comment.setCreatedAt(NOW.plusSeconds(i));
+            comment.setAuthor(reader);
+            comment.setPost(post);
+            comments.add(comment);
+        }
+        post.setComments(comments);
+        return post;
+    }
+}
@@ -0,0 +1,87 @@
+package com.orion.prototype.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.orion.prototype.security.JwtAuthenticationFilter;
+import com.orion.prototype.security.JwtService;
+import com.orion.prototype.security.TokenDenylist;
+import com.orion.prototype.security.TokenVersions;
+import com.orion.prototype.security.VerifiedTokenCache;
+
+import jakarta.servlet.FilterChain;
+
+// Full filter pass (header parsing, token validation, security context) with a no-op chain
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private JwtAuthenticationFilter filter;
+    private String header;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService(Fixtures.JWT_SECRET, new VerifiedTokenCache(10_000));
+        // Version of the fixture user known up front, the repository is never reached
+        TokenVersions tokenVersions = new TokenVersions(null);
+        tokenVersions.update(Fixtures.user().getId(), 0);
+        TokenDenylist tokenDenylist = new TokenDenylist(100_000);
+        // Some revoked tokens so the Bloom filter is not empty
+        for (int i = 0; i < 1_000; i++) {
+            tokenDenylist.revoke("revoked-" + i, Long.MAX_VALUE);
+        }
+        filter = new JwtAuthenticationFilter(jwtService, tokenVersions, tokenDenylist);
+        header = "Bearer " + jwtService.generateToken(Fixtures.user());
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object validToken() throws Exception {
+        return run(header);
+    }
+
+    @Benchmark
+    public Object invalidToken() throws Exception {
+        return run("Bearer not.a.token");
+    }
+
+    @Benchmark
+    public Object anonymous() throws Exception {
+        return run(null);
+    }
+
+    private Object run(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,57 @@
+package com.orion.prototype.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.orion.prototype.entity.User;
+import com.orion.prototype.security.AuthenticatedUser;
+import com.orion.prototype.security.JwtService;
+import com.orion.prototype.security.VerifiedTokenCache;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    // Cache disabled: every call verifies the signature
+    private JwtService uncachedJwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(Fixtures.JWT_SECRET, new VerifiedTokenCache(10_000));
+        uncachedJwtService = new JwtService(Fixtures.JWT_SECRET, new VerifiedTokenCache(0));
+        user = Fixtures.user();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public AuthenticatedUser authenticate() {
+        return jwtService.authenticate(token);
+    }
+
+    @Benchmark
+    public AuthenticatedUser authenticateUncached() {
+        return uncachedJwtService.authenticate(token);
+    }
+}
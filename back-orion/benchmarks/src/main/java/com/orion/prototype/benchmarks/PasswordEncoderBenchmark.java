@@ -0,0 +1,60 @@
+package com.orion.prototype.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.orion.prototype.security.PasswordHasher;
+import com.orion.prototype.security.SecurityConfig;
+
+// Uses the encoder bean exactly as configured by the application
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "Sup3r-Secret!";
+
+    private static final int STRENGTH = 10;
+
+    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new SecurityConfig(null, null, null).passwordEncoder(STRENGTH);
+        passwordHasher = new PasswordHasher(passwordEncoder, 0, 64, 1);
+        hash = passwordEncoder.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, hash);
+    }
+
+    // Same verification through the hashing pool, including the hand-off
+    @Benchmark
+    public boolean hasherMatches() {
+        return passwordHasher.matches(PASSWORD, hash);
+    }
+}
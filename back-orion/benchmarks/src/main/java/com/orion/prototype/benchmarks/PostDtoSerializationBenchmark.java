@@ -0,0 +1,65 @@
+package com.orion.prototype.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.orion.prototype.dto.CommentDto;
+import com.orion.prototype.dto.PostDto;
+
+// Same Jackson setup as Spring Boot's auto-configured mapper
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostDtoSerializationBenchmark {
+
+    @Param({ "20", "100" })
+    public int posts;
+
+    @Param({ "0", "10" })
+    public int comments;
+
+    private ObjectMapper mapper;
+    private List<PostDto> payload;
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        payload = new ArrayList<>(posts);
+        for (long id = 1; id <= posts; id++) {
+            List<CommentDto> commentDtos = new ArrayList<>(comments);
+            for (int i = 0; i < comments; i++) {
+                commentDtos.add(new CommentDto(id * 1_000 + i, "Commentaire numéro " + i, now, "reader"));
+            }
+            payload.add(new PostDto(id, "Titre du post " + id, "Contenu du post ".repeat(40), now,
+                    1L, "Java", "author", commentDtos));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeList() throws Exception {
+        return mapper.writeValueAsBytes(payload);
+    }
+}
@@ -0,0 +1,70 @@
+package com.orion.prototype.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+
+import com.orion.prototype.dto.PostDto;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.service.PostService;
+
+// Mapping and sort helpers are private, reached through method handles; no repository is touched
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostServiceBenchmark {
+
+    private PostService postService;
+    private MethodHandle toDto;
+    private MethodHandle buildSort;
+
+    @State(Scope.Benchmark)
+    public static class PostWithComments {
+
+        @Param({ "0", "10", "500" })
+        public int comments;
+
+        private Post post;
+
+        @Setup
+        public void setUp() {
+            post = Fixtures.post(1L, comments);
+        }
+    }
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        postService = new PostService(null, null, null, null, null, null, null, null, null, null, null);
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(PostService.class, MethodHandles.lookup());
+        toDto = lookup.findVirtual(PostService.class, "toDto", MethodType.methodType(PostDto.class, Post.class));
+        buildSort = lookup.findVirtual(PostService.class, "buildSort",
+                MethodType.methodType(Sort.class, String.class, String.class));
+    }
+
+    @Benchmark
+    public PostDto toDto(PostWithComments state) throws Throwable {
+        return (PostDto) toDto.invokeExact(postService, state.post);
+    }
+
+    @Benchmark
+    public Sort buildSort() throws Throwable {
+        return (Sort) buildSort.invokeExact(postService, "title", "asc");
+    }
+}
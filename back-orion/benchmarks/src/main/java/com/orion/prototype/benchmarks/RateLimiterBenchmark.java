@@ -0,0 +1,90 @@
+package com.orion.prototype.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orion.prototype.security.RateLimitFilter;
+import com.orion.prototype.security.RateLimiter;
+
+import jakarta.servlet.FilterChain;
+
+// Allowed path only: limits are high enough that nothing is ever rejected
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int HIGH_LIMIT = Integer.MAX_VALUE / 2;
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+    private static final byte[] LOGIN_BODY = "{\"identifier\":\"bench\",\"password\":\"secret\"}".getBytes();
+
+    private RateLimiter limiter;
+    private RateLimitFilter filter;
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter(HIGH_LIMIT, HIGH_LIMIT, 100_000);
+        MockEnvironment environment = new MockEnvironment();
+        for (String route : new String[] { "login", "register", "refresh", "identifier" }) {
+            environment.setProperty("app.rate-limit." + route + ".capacity", Integer.toString(HIGH_LIMIT));
+            environment.setProperty("app.rate-limit." + route + ".per-minute", Integer.toString(HIGH_LIMIT));
+        }
+        filter = new RateLimitFilter(environment, new ObjectMapper());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long tryAcquireContended() {
+        return limiter.tryAcquire("203.0.113.7");
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return limiter.tryAcquire("203.0.113.7");
+    }
+
+    // Request outside the limited routes, the filter only checks the path
+    @Benchmark
+    public MockHttpServletResponse unlimitedRoute() throws Exception {
+        return run(new MockHttpServletRequest("GET", "/api/posts"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse refresh() throws Exception {
+        return run(new MockHttpServletRequest("POST", "/api/auth/refresh"));
+    }
+
+    // IP and identifier buckets, including reading the login body
+    @Benchmark
+    public MockHttpServletResponse login() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setContent(LOGIN_BODY);
+        return run(request);
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        request.setRemoteAddr("203.0.113.7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        return response;
+    }
+}
@@ -0,0 +1,296 @@
+package com.orion.prototype.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.sql.DataSource;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.orion.prototype.PrototypeApplication;
+import com.orion.prototype.config.IdSequences;
+import com.orion.prototype.service.PostActivityService;
+import com.orion.prototype.service.TopicStats;
+
+/**
+ * End-to-end load test driven from the same JVM as the application. By
+ * default it starts the application on an in-memory H2 database in MySQL
+ * mode, fills it with {@link DatasetGenerator} (--scale, 0.01 by default)
+ * and runs scripted user sessions against it:
+ * <ul>
+ * <li>read: login, feed, open a post (post and its comments)</li>
+ * <li>comment: the same, then comment on the post</li>
+ * </ul>
+ * With --url it targets a running server whose data came from
+ * DatasetGenerator instead (--users tells how many accounts exist).
+ *
+ * Latencies go to HdrHistograms per scenario and per step; the report is
+ * written as JSON (--out) and each scenario histogram as a .hgrm file next
+ * to it. Other options: --concurrency, --duration (s), --warmup (s),
+ * --comment-share, --label, and any --spring.* or --app.* property passed on
+ * to the embedded application.
+ */
+public final class ScenarioLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final long MAX_LATENCY_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private ScenarioLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = CommandLine.parse(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        double commentShare = Double.parseDouble(options.getOrDefault("comment-share", "0.2"));
+        String label = options.getOrDefault("label", "scenarios");
+
+        ConfigurableApplicationContext context = null;
+        String url = options.get("url");
+        DatasetGenerator.Volumes volumes;
+        if (url == null) {
+            context = startApplication(args);
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            DatasetGenerator generator = new DatasetGenerator(
+                    DatasetGenerator.Volumes.scaled(Double.parseDouble(options.getOrDefault("scale", "0.01"))),
+                    5000, 42);
+            try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+                generator.generate(connection);
+            }
+            // The application is already running: move its id sequences past the generated
+            // rows and compute the activity counters and topic statistics of the generated data
+            context.getBean(IdSequences.class).align();
+            context.getBean(PostActivityService.class).backfill();
+            context.getBean(TopicStats.class).reconcile();
+            volumes = generator.volumes();
+        } else {
+            volumes = new DatasetGenerator.Volumes(Integer.parseInt(options.getOrDefault("users", "100000")),
+                    0, 0, 0, 0, 0);
+        }
+
+        try {
+            Driver driver = new Driver(url, volumes.users(), commentShare);
+            driver.run(concurrency, warmup);
+            Results results = driver.run(concurrency, duration);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("label", label);
+            report.put("concurrency", concurrency);
+            report.put("durationSeconds", duration);
+            report.put("dataset", volumes);
+            report.put("scenarios", results.summaries(results.scenarios, duration));
+            report.put("steps", results.summaries(results.steps, duration));
+
+            String out = options.getOrDefault("out", "load-" + label + ".json");
+            MAPPER.writeValue(new File(out), report);
+            for (Map.Entry<String, Histogram> scenario : results.scenarios.entrySet()) {
+                String hgrm = out.replaceFirst("\\.json$", "") + "-" + scenario.getKey() + ".hgrm";
+                try (PrintStream stream = new PrintStream(new FileOutputStream(hgrm))) {
+                    scenario.getValue().outputPercentileDistribution(stream, 1e6);
+                }
+            }
+            System.out.println(MAPPER.writeValueAsString(report));
+            System.out.println("Report written to " + out);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    // Command-line properties win over the application.properties packaged in the prototype jar
+    private static ConfigurableApplicationContext startApplication(String[] args) {
+        List<String> properties = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.datasource.url=jdbc:h2:mem:orion_load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.springframework.security=INFO",
+                "--app.rate-limit.enabled=false"));
+        for (String arg : args) {
+            if (arg.startsWith("--spring.") || arg.startsWith("--app.")) {
+                properties.add(arg);
+            }
+        }
+        return new SpringApplicationBuilder(PrototypeApplication.class).run(properties.toArray(String[]::new));
+    }
+
+    /**
+     * Runs the scenarios with a fixed number of concurrent sessions (closed
+     * loop). Each worker keeps its own histograms; they are merged at the end.
+     */
+    private static final class Driver {
+
+        private final String url;
+        private final double commentShare;
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        private final DatasetGenerator.Zipf activeUsers;
+
+        Driver(String url, int users, double commentShare) {
+            this.url = url;
+            this.commentShare = commentShare;
+            // Like the dataset, a few users come back much more often than the others
+            this.activeUsers = new DatasetGenerator.Zipf(users, 1.0);
+        }
+
+        Results run(int concurrency, int seconds) throws InterruptedException {
+            long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            List<Results> perWorker = new ArrayList<>();
+            CountDownLatch done = new CountDownLatch(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                Results results = new Results();
+                perWorker.add(results);
+                Thread worker = new Thread(() -> {
+                    try {
+                        Random random = ThreadLocalRandom.current();
+                        while (System.nanoTime() < deadline) {
+                            boolean comment = random.nextDouble() < commentShare;
+                            long start = System.nanoTime();
+                            boolean ok = session(results, random, comment);
+                            results.record(results.scenarios, comment ? "comment" : "read", start, ok);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }, "scenario-" + i);
+                worker.start();
+            }
+            done.await();
+
+            Results merged = new Results();
+            perWorker.forEach(merged::merge);
+            return merged;
+        }
+
+        // login -> feed -> open post (-> comment); stops at the first failed step
+        private boolean session(Results results, Random random, boolean comment) {
+            int userId = 1 + activeUsers.sample(random);
+            JsonNode login = call(results, "login", post("/api/auth/login", null,
+                    Map.of("identifier", "user" + userId, "password", DatasetGenerator.PASSWORD)));
+            if (login == null) {
+                return false;
+            }
+            String token = login.get("accessToken").asText();
+
+            JsonNode feed = call(results, "feed", get("/api/posts/feed?size=20", token));
+            if (feed == null || feed.get("items").isEmpty()) {
+                return feed != null;
+            }
+            JsonNode items = feed.get("items");
+            long postId = items.get(random.nextInt(items.size())).get("id").asLong();
+
+            if (call(results, "post", get("/api/posts/" + postId, token)) == null
+                    || call(results, "comments", get("/api/comments/post/" + postId + "?size=20", token)) == null) {
+                return false;
+            }
+            if (!comment) {
+                return true;
+            }
+            return call(results, "post comment", post("/api/comments", token,
+                    Map.of("postId", String.valueOf(postId), "content", "Commentaire de charge"))) != null;
+        }
+
+        private HttpRequest get(String path, String token) {
+            return HttpRequest.newBuilder(URI.create(url + path))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+        }
+
+        private HttpRequest post(String path, String token, Map<String, String> body) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url + path))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30));
+            if (token != null) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            try {
+                return request.POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body))).build();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // The parsed body, or null when the step failed
+        private JsonNode call(Results results, String step, HttpRequest request) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                boolean ok = response.statusCode() < 400;
+                results.record(results.steps, step, start, ok);
+                return ok ? MAPPER.readTree(response.body()) : null;
+            } catch (Exception e) {
+                results.record(results.steps, step, start, false);
+                return null;
+            }
+        }
+    }
+
+    // Latency histograms and error counts by scenario and by step
+    private static final class Results {
+
+        private final Map<String, Histogram> scenarios = new LinkedHashMap<>();
+        private final Map<String, Histogram> steps = new LinkedHashMap<>();
+        private final Map<String, Long> errors = new LinkedHashMap<>();
+
+        void record(Map<String, Histogram> histograms, String name, long startNanos, boolean ok) {
+            long elapsed = Math.min(System.nanoTime() - startNanos, MAX_LATENCY_NANOS);
+            histograms.computeIfAbsent(name, n -> new Histogram(MAX_LATENCY_NANOS, 3)).recordValue(elapsed);
+            if (!ok) {
+                errors.merge(name, 1L, Long::sum);
+            }
+        }
+
+        void merge(Results other) {
+            other.scenarios.forEach((name, histogram) -> scenarios
+                    .computeIfAbsent(name, n -> new Histogram(MAX_LATENCY_NANOS, 3)).add(histogram));
+            other.steps.forEach((name, histogram) -> steps
+                    .computeIfAbsent(name, n -> new Histogram(MAX_LATENCY_NANOS, 3)).add(histogram));
+            other.errors.forEach((name, count) -> errors.merge(name, count, Long::sum));
+        }
+
+        Map<String, Object> summaries(Map<String, Histogram> histograms, int seconds) {
+            Map<String, Object> summaries = new LinkedHashMap<>();
+            histograms.forEach((name, histogram) -> {
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("count", histogram.getTotalCount());
+                summary.put("errors", errors.getOrDefault(name, 0L));
+                summary.put("throughputPerSecond", (double) histogram.getTotalCount() / seconds);
+                summary.put("p50Ms", histogram.getValueAtPercentile(50) / 1e6);
+                summary.put("p90Ms", histogram.getValueAtPercentile(90) / 1e6);
+                summary.put("p99Ms", histogram.getValueAtPercentile(99) / 1e6);
+                summary.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1e6);
+                summary.put("maxMs", histogram.getMaxValue() / 1e6);
+                summaries.put(name, summary);
+            });
+            return summaries;
+        }
+    }
+}
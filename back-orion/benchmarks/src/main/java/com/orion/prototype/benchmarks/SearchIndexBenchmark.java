@@ -0,0 +1,111 @@
+package com.orion.prototype.benchmarks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.orion.prototype.service.SearchIndex;
+
+/**
+ * Query latency of {@link SearchIndex} on a synthetic corpus (Zipf-distributed
+ * vocabulary, 3 comments on one post in ten). Sampled so the JSON results
+ * carry p50/p95/p99; the fork gets a 4 GB heap for the 1M posts corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int TOPICS = 500;
+    private static final int WORDS_PER_POST = 60;
+    private static final int WORDS_PER_COMMENT = 20;
+    private static final int QUERIES = 10_000;
+
+    @Param({ "100000", "1000000" })
+    public int posts;
+
+    private SearchIndex index;
+    private String[] queries;
+    private long[] topics;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "w" + Integer.toString(i, 36);
+        }
+        double[] zipf = zipfCumulative(VOCABULARY);
+
+        index = new SearchIndex();
+        long commentId = 0;
+        for (int post = 1; post <= posts; post++) {
+            index.indexPost(post, 1 + random.nextInt(TOPICS), text(words, zipf, random, 8),
+                    text(words, zipf, random, WORDS_PER_POST));
+            if (post % 10 == 0) {
+                for (int c = 0; c < 3; c++) {
+                    index.indexComment(post, ++commentId, text(words, zipf, random, WORDS_PER_COMMENT));
+                }
+            }
+        }
+
+        // 1-3 terms per query, same distribution as the indexed text
+        queries = new String[QUERIES];
+        topics = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = text(words, zipf, random, 1 + random.nextInt(3));
+            topics[i] = 1 + random.nextInt(TOPICS);
+        }
+    }
+
+    @Benchmark
+    public Object search() {
+        int i = next++ % QUERIES;
+        return index.search(queries[i], null, 20);
+    }
+
+    @Benchmark
+    public Object searchInTopic() {
+        int i = next++ % QUERIES;
+        return index.search(queries[i], topics[i], 20);
+    }
+
+    private static String text(String[] words, double[] zipf, SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int word = Arrays.binarySearch(zipf, random.nextDouble());
+            text.append(words[Math.min(word < 0 ? -word - 1 : word, words.length - 1)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static double[] zipfCumulative(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+}
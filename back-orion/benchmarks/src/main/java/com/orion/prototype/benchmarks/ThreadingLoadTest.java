@@ -0,0 +1,218 @@
+package com.orion.prototype.benchmarks;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Closed-loop load test of the posts and comments read endpoints against a
+ * running server, to compare platform and virtual request threads. Start the
+ * server once per mode, run this against it with a different --label, then
+ * compare the two JSON reports with --compare=a.json,b.json.
+ *
+ * Options: --url, --identifier, --password, --concurrency, --duration (s),
+ * --warmup (s), --label, --out.
+ */
+public final class ThreadingLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String POSTS = "GET /api/posts?size=20";
+    private static final String COMMENTS = "GET /api/comments/post/{id}";
+
+    private ThreadingLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = CommandLine.parse(args);
+        if (options.containsKey("compare")) {
+            String[] files = options.get("compare").split(",");
+            compare(MAPPER.readTree(new File(files[0])), MAPPER.readTree(new File(files[1])));
+            return;
+        }
+
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        String label = options.getOrDefault("label", "run");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String token = login(client, url, options.get("identifier"), options.get("password"));
+        long[] postIds = postIds(client, url, token);
+        if (postIds.length == 0) {
+            throw new IllegalStateException("Aucun post sur le serveur, rien à charger");
+        }
+
+        // Warmup, discarded
+        run(client, url, token, postIds, concurrency, warmup);
+        Map<String, Recorder> results = run(client, url, token, postIds, concurrency, duration);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("concurrency", concurrency);
+        report.put("durationSeconds", duration);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        results.forEach((endpoint, recorder) -> endpoints.put(endpoint, recorder.summary(duration)));
+        report.put("endpoints", endpoints);
+
+        String out = options.getOrDefault("out", "load-" + label + ".json");
+        MAPPER.writeValue(new File(out), report);
+        System.out.println(MAPPER.writeValueAsString(report));
+        System.out.println("Report written to " + out);
+    }
+
+    private static Map<String, Recorder> run(HttpClient client, String url, String token, long[] postIds,
+            int concurrency, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Map<String, Recorder>> perThread = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            Map<String, Recorder> recorders = Map.of(POSTS, new Recorder(), COMMENTS, new Recorder());
+            perThread.add(recorders);
+            Thread worker = new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        if (random.nextBoolean()) {
+                            call(client, token, url + "/api/posts?size=20", recorders.get(POSTS));
+                        } else {
+                            long id = postIds[random.nextInt(postIds.length)];
+                            call(client, token, url + "/api/comments/post/" + id, recorders.get(COMMENTS));
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + i);
+            worker.start();
+        }
+        done.await();
+
+        Map<String, Recorder> merged = new LinkedHashMap<>();
+        merged.put(POSTS, new Recorder());
+        merged.put(COMMENTS, new Recorder());
+        perThread.forEach(recorders -> recorders.forEach((endpoint, recorder) -> merged.get(endpoint).merge(recorder)));
+        return merged;
+    }
+
+    private static void call(HttpClient client, String token, String uri, Recorder recorder) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            recorder.record(System.nanoTime() - start, response.statusCode() < 400);
+        } catch (Exception e) {
+            recorder.record(System.nanoTime() - start, false);
+        }
+    }
+
+    private static String login(HttpClient client, String url, String identifier, String password) throws Exception {
+        if (identifier == null || password == null) {
+            throw new IllegalArgumentException("--identifier et --password sont requis");
+        }
+        String body = MAPPER.writeValueAsString(Map.of("identifier", identifier, "password", password));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login refusé: " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body()).get("accessToken").asText();
+    }
+
+    private static long[] postIds(HttpClient client, String url, String token) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url + "/api/posts?view=summary&size=100"))
+                .header("Authorization", "Bearer " + token)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode items = MAPPER.readTree(response.body()).get("items");
+        long[] ids = new long[items.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = items.get(i).get("id").asLong();
+        }
+        return ids;
+    }
+
+    private static void compare(JsonNode a, JsonNode b) {
+        System.out.printf("%-32s %-20s %12s %12s %12s%n", "endpoint", "metric", a.get("label").asText(),
+                b.get("label").asText(), "delta");
+        a.get("endpoints").properties().forEach(entry -> {
+            JsonNode other = b.get("endpoints").get(entry.getKey());
+            for (String metric : new String[] { "throughputPerSecond", "p50Ms", "p99Ms", "errors" }) {
+                double left = entry.getValue().get(metric).asDouble();
+                double right = other.get(metric).asDouble();
+                String delta = left == 0 ? "" : String.format("%+.1f%%", (right - left) * 100 / left);
+                System.out.printf("%-32s %-20s %12.2f %12.2f %12s%n", entry.getKey(), metric, left, right, delta);
+            }
+        });
+    }
+
+    // Latencies of one worker; merged once the run is over
+    private static final class Recorder {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long elapsed, boolean ok) {
+            if (!ok) {
+                errors++;
+            }
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsed;
+        }
+
+        void merge(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.nanos[i], true);
+            }
+            errors += other.errors;
+        }
+
+        Map<String, Object> summary(int seconds) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("errors", errors);
+            summary.put("throughputPerSecond", (double) count / seconds);
+            summary.put("p50Ms", percentile(sorted, 0.50));
+            summary.put("p90Ms", percentile(sorted, 0.90));
+            summary.put("p99Ms", percentile(sorted, 0.99));
+            summary.put("maxMs", count == 0 ? 0 : sorted[count - 1] / 1e6);
+            return summary;
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
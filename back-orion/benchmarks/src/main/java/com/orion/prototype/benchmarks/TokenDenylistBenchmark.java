@@ -0,0 +1,52 @@
+package com.orion.prototype.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.orion.prototype.security.TokenDenylist;
+
+// Lookup of a token that is not revoked, with the denylist at its expected size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenDenylistBenchmark {
+
+    private TokenDenylist denylist;
+    private String liveTokenId;
+    private String revokedTokenId;
+
+    @Setup
+    public void setUp() {
+        denylist = new TokenDenylist(100_000);
+        for (int i = 0; i < 100_000; i++) {
+            denylist.revoke(UUID.randomUUID().toString(), Long.MAX_VALUE);
+        }
+        liveTokenId = UUID.randomUUID().toString();
+        revokedTokenId = UUID.randomUUID().toString();
+        denylist.revoke(revokedTokenId, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return denylist.isRevoked(liveTokenId);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return denylist.isRevoked(revokedTokenId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.orion.prototype.config;
+
+import java.sql.DatabaseMetaData;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Posts and comments take their ids from pooled sequences
+ * (allocation 50) instead of AUTO_INCREMENT, so Hibernate can batch their
+ * inserts. Rows written before, or by bulk JDBC loads, keep their ids: at
+ * startup each sequence is moved past the highest id of its table, never
+ * back. On MySQL the sequence is a one-row table (next_val), elsewhere a real
+ * sequence.
+ */
+@Component
+public class IdSequences {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequences.class);
+
+    // Same value as allocationSize on the entities
+    static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "posts", "posts_seq",
+            "comments", "comments_seq");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequences(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * With the pooled optimizer the value read from a sequence is the top of
+     * the next block, so it must be at least max(id) + allocation size. Runs
+     * once the context is refreshed, after any deferred data.sql and before the
+     * application runners; call again after inserting rows with explicit ids
+     * while the application runs.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void align() throws MetaDataAccessException {
+        boolean sequenceTables = isMySql();
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+            if (maxId == null) {
+                return;
+            }
+            long next = maxId + ALLOCATION_SIZE;
+            if (sequenceTables) {
+                int moved = jdbcTemplate.update("update " + sequence + " set next_val = ? where next_val < ?", next, next);
+                if (moved > 0) {
+                    log.info("Sequence {} moved to {} (max id {})", sequence, next, maxId);
+                }
+            } else {
+                Long current = jdbcTemplate.queryForObject(
+                        "select base_value from information_schema.sequences where sequence_name = ?",
+                        Long.class, sequence);
+                if (current == null || current < next) {
+                    jdbcTemplate.execute("alter sequence " + sequence + " restart with " + next);
+                    log.info("Sequence {} moved to {} (max id {})", sequence, next, maxId);
+                }
+            }
+        });
+    }
+
+    private boolean isMySql() throws MetaDataAccessException {
+        String product = JdbcUtils.commonDatabaseName(
+                JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        return "MySQL".equals(product) || "MariaDB".equals(product);
+    }
+}
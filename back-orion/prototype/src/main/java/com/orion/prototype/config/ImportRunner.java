@@ -0,0 +1,57 @@
+package com.orion.prototype.config;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.orion.prototype.service.ImportService;
+
+/**
+ * Command-line bulk import: started with --app.import.file=posts.ndjson, the
+ * application imports the file and exits with status 0, or 1 on the first
+ * invalid line. Add --server.port=0 when an instance already holds the
+ * usual port.
+ */
+@Component
+@ConditionalOnProperty(name = "app.import.file")
+public class ImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportRunner.class);
+
+    private final ImportService importService;
+    private final ConfigurableApplicationContext context;
+    private final Path file;
+
+    public ImportRunner(ImportService importService, ConfigurableApplicationContext context,
+            @Value("${app.import.file}") Path file) {
+        this.importService = importService;
+        this.context = context;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int status = 0;
+        try (InputStream input = Files.newInputStream(file)) {
+            ImportService.Result result = importService.importPosts(input);
+            log.info("Import of {} done: {} posts, {} comments in {} ms ({} rows/s)", file, result.posts(),
+                    result.comments(), result.millis(),
+                    (result.posts() + result.comments()) * 1000 / Math.max(1, result.millis()));
+        } catch (Exception e) {
+            log.error("Import of {} stopped: {}", file, e.getMessage());
+            status = 1;
+        }
+        int exitCode = status;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
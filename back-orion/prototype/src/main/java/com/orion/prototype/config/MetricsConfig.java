@@ -0,0 +1,94 @@
+package com.orion.prototype.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.orion.prototype.security.PasswordHasher;
+import com.orion.prototype.security.RateLimitFilter;
+import com.orion.prototype.security.TokenDenylist;
+import com.orion.prototype.security.VerifiedTokenCache;
+import com.orion.prototype.service.SubscriptionCache;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Application side of the metrics surface. Request timers, repository timers,
+ * Hikari and Hibernate meters come from Spring Boot; this adds the controller
+ * method to the request timers and publishes the counters our own
+ * components already keep: password hashing, token and subscription caches,
+ * rate limiting.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // http.server.requests gets a handler tag such as PostController.getFeed
+    @Bean
+    public DefaultServerRequestObservationConvention handlerTaggingConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(handler(context));
+            }
+        };
+    }
+
+    private static KeyValue handler(ServerRequestObservationContext context) {
+        Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return KeyValue.of("handler", method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+        }
+        return KeyValue.of("handler", "none");
+    }
+
+    @Bean
+    public MeterBinder applicationMetrics(PasswordHasher passwordHasher, VerifiedTokenCache tokenCache,
+            TokenDenylist tokenDenylist, RateLimitFilter rateLimitFilter, SubscriptionCache subscriptionCache) {
+        return registry -> {
+            Gauge.builder("orion.password.queue", passwordHasher, PasswordHasher::queueDepth)
+                    .description("Password hashes waiting for a worker").register(registry);
+            Gauge.builder("orion.password.active", passwordHasher, PasswordHasher::activeCount)
+                    .description("Password hashes in progress").register(registry);
+            FunctionCounter.builder("orion.password.hashes", passwordHasher, PasswordHasher::hashCount)
+                    .description("Password hashes and checks completed").register(registry);
+            FunctionCounter.builder("orion.password.rejected", passwordHasher, PasswordHasher::rejectedCount)
+                    .description("Password work refused because the queue was full").register(registry);
+            Gauge.builder("orion.password.hash.avg", passwordHasher, PasswordHasher::averageHashMillis)
+                    .baseUnit("milliseconds").register(registry);
+
+            FunctionCounter.builder("orion.jwt.cache.requests", tokenCache, VerifiedTokenCache::hits)
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("orion.jwt.cache.requests", tokenCache, VerifiedTokenCache::misses)
+                    .tag("result", "miss").register(registry);
+            Gauge.builder("orion.jwt.cache.size", tokenCache, VerifiedTokenCache::size).register(registry);
+
+            FunctionCounter.builder("orion.subscriptions.cache.requests", subscriptionCache, SubscriptionCache::hits)
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("orion.subscriptions.cache.requests", subscriptionCache,
+                    SubscriptionCache::misses).tag("result", "miss").register(registry);
+            Gauge.builder("orion.subscriptions.cache.size", subscriptionCache, SubscriptionCache::size)
+                    .register(registry);
+
+            Gauge.builder("orion.jwt.denylist.size", tokenDenylist, TokenDenylist::size).register(registry);
+            FunctionCounter.builder("orion.jwt.denylist.false.positives", tokenDenylist,
+                    TokenDenylist::falsePositiveCount).register(registry);
+
+            // The limiter set is fixed at startup, so the route tags are too
+            rateLimitFilter.rejectedCounts().keySet().forEach(route -> FunctionCounter
+                    .builder("orion.rate.limit.rejected", rateLimitFilter,
+                            filter -> filter.rejectedCounts().getOrDefault(route, 0L))
+                    .tag("limiter", route).register(registry));
+            rateLimitFilter.overflowCounts().keySet().forEach(route -> FunctionCounter
+                    .builder("orion.rate.limit.overflow", rateLimitFilter,
+                            filter -> filter.overflowCounts().getOrDefault(route, 0L))
+                    .tag("limiter", route).register(registry));
+        };
+    }
+}
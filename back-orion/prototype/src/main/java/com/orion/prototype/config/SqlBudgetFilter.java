@@ -0,0 +1,82 @@
+package com.orion.prototype.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements of each request, token checks included, and logs
+ * their fingerprints when app.sql-budget.max-statements is exceeded. With
+ * app.sql-budget.header the count is also returned as X-Query-Count; the
+ * response is then buffered so statements run while writing the body are
+ * counted too.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+    private final SqlStatementCounter counter;
+    private final boolean enabled;
+    private final int maxStatements;
+    private final boolean header;
+
+    public SqlBudgetFilter(SqlStatementCounter counter,
+            @Value("${app.sql-budget.enabled:true}") boolean enabled,
+            @Value("${app.sql-budget.max-statements:10}") int maxStatements,
+            @Value("${app.sql-budget.header:false}") boolean header) {
+        this.counter = counter;
+        this.enabled = enabled;
+        this.maxStatements = maxStatements;
+        this.header = header;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope = counter.open()) {
+            ContentCachingResponseWrapper buffered = header ? new ContentCachingResponseWrapper(response) : null;
+            try {
+                filterChain.doFilter(request, buffered != null ? buffered : response);
+            } finally {
+                // Also when the chain throws, or whatever was written would be lost with the wrapper
+                if (buffered != null) {
+                    // Set before the copy, which commits the response
+                    buffered.setHeader(HEADER, String.valueOf(scope.count()));
+                    buffered.copyBodyToResponse();
+                }
+            }
+            if (scope.count() > maxStatements) {
+                log.warn("SQL budget exceeded: {} {} ran {} statements (budget {}){}", request.getMethod(),
+                        request.getRequestURI(), scope.count(), maxStatements, describe(scope.fingerprints()));
+            }
+        }
+    }
+
+    private static String describe(Map<String, Integer> fingerprints) {
+        StringBuilder out = new StringBuilder();
+        fingerprints.forEach((sql, times) -> out.append("\n  ").append(times).append("x ").append(sql));
+        return out.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.orion.prototype.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a
+ * {@link Scope} is open. Scopes nest: the request filter opens one per
+ * request and tests can open their own around a call to pin its query count.
+ * Outside any scope the inspector costs one ThreadLocal read.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final ThreadLocal<List<Scope>> SCOPES = ThreadLocal.withInitial(ArrayList::new);
+
+    // Hands this bean to Hibernate instead of letting it instantiate the class
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<Scope> scopes = SCOPES.get();
+        if (!scopes.isEmpty()) {
+            String fingerprint = fingerprint(sql);
+            for (Scope scope : scopes) {
+                scope.record(fingerprint);
+            }
+        }
+        return sql;
+    }
+
+    public Scope open() {
+        Scope scope = new Scope();
+        SCOPES.get().add(scope);
+        return scope;
+    }
+
+    // Literals and IN lists are folded so the same query shape groups together
+    static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * Statements seen on this thread since the scope was opened. Must be
+     * closed on the thread that opened it.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Map<String, Integer> fingerprints = new LinkedHashMap<>();
+        private int count;
+
+        private Scope() {
+        }
+
+        private void record(String fingerprint) {
+            count++;
+            fingerprints.merge(fingerprint, 1, Integer::sum);
+        }
+
+        public int count() {
+            return count;
+        }
+
+        // Statement shapes in first-seen order, with how often each ran
+        public Map<String, Integer> fingerprints() {
+            return fingerprints;
+        }
+
+        @Override
+        public void close() {
+            List<Scope> scopes = SCOPES.get();
+            scopes.remove(this);
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+}
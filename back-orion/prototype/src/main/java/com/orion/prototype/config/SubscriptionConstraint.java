@@ -0,0 +1,91 @@
+package com.orion.prototype.config;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulk subscriptions (INSERT ... SELECT) and the duplicate check of a single
+ * subscription rely on uk_subscriptions_user_topic. ddl-auto=update cannot
+ * add it to a table that already holds duplicate rows: it logs the failure
+ * and starts anyway. At startup the constraint is checked; when missing, the
+ * duplicates are deleted (the oldest subscription of each pair is kept) and
+ * the constraint is added. The application does not start without it.
+ */
+@Component
+public class SubscriptionConstraint {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionConstraint.class);
+
+    static final String NAME = "uk_subscriptions_user_topic";
+
+    private static final Set<String> COLUMNS = Set.of("user_id", "topic_id");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SubscriptionConstraint(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensure() throws MetaDataAccessException {
+        if (exists()) {
+            return;
+        }
+        // The derived table lets MySQL read the table it deletes from
+        int deleted = jdbcTemplate.update("""
+                delete from subscriptions where id not in (
+                    select kept.id from (select min(id) as id from subscriptions group by user_id, topic_id) kept)
+                """);
+        if (deleted > 0) {
+            log.warn("{} duplicate subscriptions deleted", deleted);
+        }
+        jdbcTemplate.execute("alter table subscriptions add constraint " + NAME + " unique (user_id, topic_id)");
+        if (!exists()) {
+            throw new IllegalStateException("Contrainte " + NAME + " absente de la table subscriptions");
+        }
+        log.info("Constraint {} added", NAME);
+    }
+
+    // Any unique index over exactly (user_id, topic_id), whatever its name
+    boolean exists() throws MetaDataAccessException {
+        return JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> {
+            Map<String, Set<String>> uniqueIndexes = new HashMap<>();
+            try (ResultSet rs = indexInfo(metaData)) {
+                while (rs.next()) {
+                    String index = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (index != null && column != null) {
+                        uniqueIndexes.computeIfAbsent(index, name -> new HashSet<>())
+                                .add(column.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return uniqueIndexes.containsValue(COLUMNS);
+        });
+    }
+
+    private static ResultSet indexInfo(DatabaseMetaData metaData) throws SQLException {
+        String catalog = metaData.getConnection().getCatalog();
+        String schema = metaData.getConnection().getSchema();
+        return metaData.getIndexInfo(catalog, schema, "subscriptions", true, false);
+    }
+}
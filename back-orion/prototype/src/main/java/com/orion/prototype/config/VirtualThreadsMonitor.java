@@ -0,0 +1,116 @@
+package com.orion.prototype.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports the request threading mode and, with virtual threads, carrier
+ * pinning. spring.threads.virtual.enabled only takes effect on Java 21+,
+ * while the build targets 17: on an older runtime the request is logged and
+ * platform threads are kept. Pinning is read from the JFR
+ * jdk.VirtualThreadPinned event and counted per first application frame,
+ * published as orion.threads.pinned tagged with that call site.
+ */
+@Component
+public class VirtualThreadsMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.orion.prototype.";
+
+    private final boolean requested;
+    private final Duration pinningThreshold;
+    private final MeterRegistry registry;
+    private final Map<String, Counter> pinnedBySite = new ConcurrentHashMap<>();
+    private RecordingStream recording;
+
+    public VirtualThreadsMonitor(MeterRegistry registry,
+            @Value("${spring.threads.virtual.enabled:false}") boolean requested,
+            @Value("${app.threads.pinning-threshold-ms:20}") long pinningThresholdMs) {
+        this.registry = registry;
+        this.requested = requested;
+        this.pinningThreshold = Duration.ofMillis(pinningThresholdMs);
+    }
+
+    public boolean isVirtualThreadsActive() {
+        return requested && Runtime.version().feature() >= 21;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isVirtualThreadsActive()) {
+            if (requested) {
+                log.warn("Virtual threads need Java 21+, running on Java {}: platform threads kept",
+                        Runtime.version().feature());
+            } else {
+                log.info("Request threads: platform (Tomcat pool)");
+            }
+            return;
+        }
+
+        log.info("Request threads: virtual, pinning over {} ms is reported", pinningThreshold.toMillis());
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(pinningThreshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+    }
+
+    // Pinning events seen so far, by application call site
+    public Map<String, Long> pinningReport() {
+        Map<String, Long> report = new TreeMap<>();
+        pinnedBySite.forEach((site, counter) -> report.put(site, (long) counter.count()));
+        return report;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = callSite(event);
+        // Call sites are code locations, so the tag stays low-cardinality
+        pinnedBySite.computeIfAbsent(site, s -> Counter.builder("orion.threads.pinned")
+                .description("Carrier threads pinned longer than the threshold")
+                .tag("site", s)
+                .register(registry)).increment();
+        log.warn("Carrier thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+    }
+
+    // First frame in our code, or the top frame when the pinning happens entirely in libraries
+    private static String callSite(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame top = event.getStackTrace().getFrames().get(0);
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return format(frame);
+            }
+        }
+        return format(top);
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
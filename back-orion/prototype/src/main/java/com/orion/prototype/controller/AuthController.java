@@ -17,8 +17,6 @@ import com.orion.prototype.dto.RegisterRequest;
 import com.orion.prototype.dto.UserDto;
 import com.orion.prototype.dto.UpdateProfileRequest;
 import com.orion.prototype.dto.UpdateProfileResponse;
-import com.orion.prototype.entity.User;
-import com.orion.prototype.repository.UserRepository;
 import com.orion.prototype.service.AuthService;
 
 import jakarta.validation.Valid;
@@ -28,11 +26,9 @@ import jakarta.validation.Valid;
 public class AuthController {
 
     private final AuthService authService;
-    private final UserRepository userRepository;
 
-    public AuthController(AuthService authService, UserRepository userRepository) {
+    public AuthController(AuthService authService) {
         this.authService = authService;
-        this.userRepository = userRepository;
     }
 
     @PostMapping("/register")
@@ -52,12 +48,7 @@ public class AuthController {
 
     @GetMapping("/me")
     public UserDto me(Authentication authentication) {
-        String email = (String) authentication.getPrincipal();
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
-
-        return new UserDto(user.getId(), user.getUsername(), user.getEmail());
+        return authService.getCurrentUser(authentication);
     }
 
     @PostMapping("/logout")
@@ -9,9 +9,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.orion.prototype.dto.CommentDto;
+import com.orion.prototype.dto.CursorPageDto;
+import com.orion.prototype.dto.VersionStamp;
 import com.orion.prototype.service.CommentService;
 
 @RestController
@@ -33,9 +37,23 @@ public class CommentController {
         return commentService.addComment(postId, content, authentication);
     }
 
-    // GET /api/comments/post/{postId} -> get comments by post
+    // GET /api/comments/post/{postId}?size=&cursor= -> page of comments, oldest first
     @GetMapping("/post/{postId}")
-    public List<CommentDto> getCommentsByPost(@PathVariable Long postId) {
+    public CursorPageDto<CommentDto> getCommentsPageByPost(
+            @PathVariable Long postId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return commentService.getCommentsPageByPost(postId, cursor, size);
+    }
+
+    // Whole thread, only on explicit request:
+    // GET /api/comments/post/{postId}?all=true -> get comments by post (304 if unchanged)
+    @GetMapping(path = "/post/{postId}", params = "all=true")
+    public List<CommentDto> getCommentsByPost(@PathVariable Long postId, WebRequest request) {
+        VersionStamp stamp = commentService.getCommentsStamp(postId);
+        if (request.checkNotModified(stamp.etag(), stamp.lastModified())) {
+            return null;
+        }
         return commentService.getCommentsByPost(postId);
     }
-}
\ No newline at end of file
+}
@@ -13,10 +13,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.orion.prototype.dto.CollectionStamp;
+import com.orion.prototype.dto.CursorPageDto;
 import com.orion.prototype.dto.PostDto;
+import com.orion.prototype.dto.PostSummaryDto;
+import com.orion.prototype.dto.VersionStamp;
+import com.orion.prototype.security.AuthenticatedUser;
 import com.orion.prototype.service.PostService;
 
 @RestController
@@ -29,29 +35,113 @@ public class PostController {
         this.postService = postService;
     }
 
+    // Full lists and single posts answer 304 when the version stamp matches
     @GetMapping
-    public List<PostDto> getAllPosts() {
+    public List<PostDto> getAllPosts(WebRequest request) {
+        if (notModified(request, postService.getAllPostsStamp())) {
+            return null;
+        }
         return postService.getAllPosts();
     }
 
+    // GET /api/posts/feed?cursor=&size= -> posts of the topics the user follows
+    @GetMapping("/feed")
+    public CursorPageDto<PostDto> getFeed(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            Authentication authentication) {
+        return postService.getFeed(AuthenticatedUser.of(authentication).id(), cursor, size);
+    }
+
+    // Paginated variant, selected when a page size is given: GET /api/posts?size=&cursor=
+    @GetMapping(params = { "size", "view!=summary" })
+    public CursorPageDto<PostDto> getAllPostsPage(
+            @RequestParam(name = "sort", defaultValue = "createdAt") String sort,
+            @RequestParam(name = "order", required = false) String order,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size") int size) {
+        return postService.getAllPostsPage(sort, order, cursor, size);
+    }
+
+    // Summary list mode: GET /api/posts?view=summary&size=&cursor=
+    @GetMapping(params = "view=summary")
+    public CursorPageDto<PostSummaryDto> getAllPostSummaries(
+            @RequestParam(name = "sort", defaultValue = "createdAt") String sort,
+            @RequestParam(name = "order", required = false) String order,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return postService.getAllPostSummaries(sort, order, cursor, size);
+    }
+
     @GetMapping("/user/{userId}")
     public List<PostDto> getPostsByUserId(
             @PathVariable Long userId,
             @RequestParam(name = "sort", defaultValue = "createdAt") String sort,
-            @RequestParam(name = "order", required = false) String order) {
+            @RequestParam(name = "order", required = false) String order,
+            WebRequest request) {
+        if (notModified(request, postService.getPostsStampByAuthorId(userId))) {
+            return null;
+        }
         return postService.getPostsByAuthorId(userId, sort, order);
     }
 
+    @GetMapping(path = "/user/{userId}", params = { "size", "view!=summary" })
+    public CursorPageDto<PostDto> getPostsPageByUserId(
+            @PathVariable Long userId,
+            @RequestParam(name = "sort", defaultValue = "createdAt") String sort,
+            @RequestParam(name = "order", required = false) String order,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size") int size) {
+        return postService.getPostsPageByAuthorId(userId, sort, order, cursor, size);
+    }
+
+    @GetMapping(path = "/user/{userId}", params = "view=summary")
+    public CursorPageDto<PostSummaryDto> getPostSummariesByUserId(
+            @PathVariable Long userId,
+            @RequestParam(name = "sort", defaultValue = "createdAt") String sort,
+            @RequestParam(name = "order", required = false) String order,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return postService.getPostSummariesByAuthorId(userId, sort, order, cursor, size);
+    }
+
     @GetMapping("/topic/{topicId}")
     public List<PostDto> getPostsByTopicId(
             @PathVariable Long topicId,
             @RequestParam(name = "sort", defaultValue = "createdAt") String sort,
-            @RequestParam(name = "order", required = false) String order) {
+            @RequestParam(name = "order", required = false) String order,
+            WebRequest request) {
+        if (notModified(request, postService.getPostsStampByTopicId(topicId))) {
+            return null;
+        }
         return postService.getPostsByTopicId(topicId, sort, order);
     }
 
+    @GetMapping(path = "/topic/{topicId}", params = { "size", "view!=summary" })
+    public CursorPageDto<PostDto> getPostsPageByTopicId(
+            @PathVariable Long topicId,
+            @RequestParam(name = "sort", defaultValue = "createdAt") String sort,
+            @RequestParam(name = "order", required = false) String order,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size") int size) {
+        return postService.getPostsPageByTopicId(topicId, sort, order, cursor, size);
+    }
+
+    @GetMapping(path = "/topic/{topicId}", params = "view=summary")
+    public CursorPageDto<PostSummaryDto> getPostSummariesByTopicId(
+            @PathVariable Long topicId,
+            @RequestParam(name = "sort", defaultValue = "createdAt") String sort,
+            @RequestParam(name = "order", required = false) String order,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return postService.getPostSummariesByTopicId(topicId, sort, order, cursor, size);
+    }
+
     @GetMapping("/{id}")
-    public PostDto getPostById(@PathVariable Long id) {
+    public PostDto getPostById(@PathVariable Long id, WebRequest request) {
+        if (notModified(request, postService.getPostStamp(id))) {
+            return null;
+        }
         return postService.getPostById(id);
     }
 
@@ -62,9 +152,7 @@ public class PostController {
         String content = payload.get("content");
         Long topicId = Long.valueOf(payload.get("topicId"));
 
-        String authorEmail = (String) authentication.getPrincipal();
-
-        return postService.createPost(title, content, topicId, authorEmail);
+        return postService.createPost(title, content, topicId, AuthenticatedUser.of(authentication));
     }
 
     @PutMapping("/{id}")
@@ -88,16 +176,22 @@ public class PostController {
         } catch (NumberFormatException ex) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Le champ topicId doit être un nombre");
         }
-        String authorEmail = (String) authentication.getPrincipal();
-
-        return postService.updatePost(id, title, content, topicId, authorEmail);
+        return postService.updatePost(id, title, content, topicId, AuthenticatedUser.of(authentication).id());
     }
 
     @DeleteMapping("/{id}")
     public void deletePost(
             @PathVariable Long id,
             Authentication authentication) {
-        String authorEmail = (String) authentication.getPrincipal();
-        postService.deletePost(id, authorEmail);
+        postService.deletePost(id, AuthenticatedUser.of(authentication).id());
+    }
+
+    // Sets ETag and Last-Modified; true when the client copy is still current
+    private boolean notModified(WebRequest request, VersionStamp stamp) {
+        return request.checkNotModified(stamp.etag(), stamp.lastModified());
+    }
+
+    private boolean notModified(WebRequest request, CollectionStamp stamp) {
+        return request.checkNotModified(stamp.etag(), stamp.lastModified());
     }
 }
@@ -0,0 +1,31 @@
+package com.orion.prototype.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.orion.prototype.dto.SearchResultDto;
+import com.orion.prototype.service.SearchService;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    // GET /api/search?q=&topicId=&limit= -> posts ranked by relevance
+    @GetMapping
+    public List<SearchResultDto> search(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "topicId", required = false) Long topicId,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return searchService.search(query, topicId, limit);
+    }
+}
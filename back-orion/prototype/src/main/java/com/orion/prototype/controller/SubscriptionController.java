@@ -10,11 +10,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.orion.prototype.dto.SubscribeAllRequest;
 import com.orion.prototype.dto.SubscriptionDto;
 import com.orion.prototype.service.SubscriptionService;
 
+import jakarta.validation.Valid;
+
 @RestController
 @RequestMapping("/api/subscriptions")
 public class SubscriptionController {
@@ -32,6 +36,19 @@ public class SubscriptionController {
         return subscriptionService.subscribe(topicId, authentication);
     }
 
+    // POST /api/subscriptions/bulk {"topicIds": [..]} -> all subscriptions of the user afterwards
+    @PostMapping("/bulk")
+    public List<SubscriptionDto> subscribeAll(@Valid @RequestBody SubscribeAllRequest request,
+            Authentication authentication) {
+        return subscriptionService.subscribeAll(request.topicIds(), authentication);
+    }
+
+    // DELETE /api/subscriptions?topicIds=1,2,3 -> remaining subscriptions of the user
+    @DeleteMapping(params = "topicIds")
+    public List<SubscriptionDto> unsubscribeAll(@RequestParam List<Long> topicIds, Authentication authentication) {
+        return subscriptionService.unsubscribeAll(topicIds, authentication);
+    }
+
     @GetMapping("/me")
     public List<SubscriptionDto> getMySubscriptions(Authentication authentication) {
         return subscriptionService.getMySubscriptions(authentication);
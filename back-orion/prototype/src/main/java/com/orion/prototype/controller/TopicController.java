@@ -5,8 +5,9 @@ import java.util.List;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.orion.prototype.dto.TopicDto;
+import com.orion.prototype.dto.TopicSummaryDto;
 import com.orion.prototype.service.TopicService;
 
 @RestController
@@ -19,8 +20,13 @@ public class TopicController {
         this.topicService = topicService;
     }
 
+    // Answers 304 when If-None-Match matches the ETag of the list that would be served
     @GetMapping
-    public List<TopicDto> getAllTopics() {
-        return topicService.getAllTopics();
+    public List<TopicSummaryDto> getAllTopics(WebRequest request) {
+        TopicService.TopicList topics = topicService.getTopics();
+        if (request.checkNotModified(topics.etag())) {
+            return null;
+        }
+        return topics.topics();
     }
 }
@@ -0,0 +1,12 @@
+package com.orion.prototype.dto;
+
+/**
+ * Version of a post collection maintained in memory, see PostVersions.
+ * The epoch tells application runs apart, the number changes on every write.
+ */
+public record CollectionStamp(String epoch, long number, long lastModified) {
+
+    public String etag() {
+        return "\"" + epoch + "." + number + "\"";
+    }
+}
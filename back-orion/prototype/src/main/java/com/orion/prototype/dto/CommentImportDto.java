@@ -0,0 +1,9 @@
+package com.orion.prototype.dto;
+
+import java.time.LocalDateTime;
+
+public record CommentImportDto(
+        String content,
+        Long authorId,
+        LocalDateTime createdAt) {
+}
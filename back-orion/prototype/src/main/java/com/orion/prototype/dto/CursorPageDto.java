@@ -0,0 +1,8 @@
+package com.orion.prototype.dto;
+
+import java.util.List;
+
+public record CursorPageDto<T>(
+        List<T> items,
+        String nextCursor) {
+}
@@ -0,0 +1,14 @@
+package com.orion.prototype.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One line of a bulk import file (NDJSON); createdAt defaults to the import time
+public record PostImportDto(
+        String title,
+        String content,
+        Long topicId,
+        Long authorId,
+        LocalDateTime createdAt,
+        List<CommentImportDto> comments) {
+}
@@ -0,0 +1,15 @@
+package com.orion.prototype.dto;
+
+import java.time.LocalDateTime;
+
+public record PostSummaryDto(
+        Long id,
+        String title,
+        String excerpt,
+        LocalDateTime createdAt,
+        Long topicId,
+        String topicName,
+        String authorUsername,
+        long commentCount,
+        LocalDateTime lastActivityAt) {
+}
@@ -0,0 +1,6 @@
+package com.orion.prototype.dto;
+
+public record SearchResultDto(
+        PostSummaryDto post,
+        float score) {
+}
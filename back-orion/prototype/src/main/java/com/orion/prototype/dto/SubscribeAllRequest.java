@@ -0,0 +1,15 @@
+package com.orion.prototype.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record SubscribeAllRequest(
+
+        @NotEmpty(message = "Au moins un topic est attendu") @Size(max = MAX_TOPICS, message = "Au plus {max} topics par requête") List<@NotNull(message = "Topic invalide") Long> topicIds) {
+
+    // Also the bound of bulk unsubscriptions, whose ids come as a request parameter
+    public static final int MAX_TOPICS = 100;
+}
@@ -0,0 +1,12 @@
+package com.orion.prototype.dto;
+
+import java.time.LocalDateTime;
+
+public record TopicSummaryDto(
+        Long id,
+        String description,
+        String name,
+        long postCount,
+        long subscriberCount,
+        LocalDateTime lastPostAt) {
+}
@@ -0,0 +1,30 @@
+package com.orion.prototype.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Aggregate state of a collection of posts and their comments, read with one
+ * query. Any insert, update or delete in the collection changes the ETag.
+ */
+public record VersionStamp(
+        Long postCount,
+        Long postVersionSum,
+        LocalDateTime postsModifiedAt,
+        Long commentCount,
+        LocalDateTime commentsModifiedAt) {
+
+    public String etag() {
+        return "\"" + postCount + "." + postVersionSum + "." + toMillis(postsModifiedAt)
+                + "-" + commentCount + "." + toMillis(commentsModifiedAt) + "\"";
+    }
+
+    // Latest change in milliseconds since epoch, -1 for an empty collection
+    public long lastModified() {
+        return Math.max(toMillis(postsModifiedAt), toMillis(commentsModifiedAt));
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -4,7 +4,8 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -13,10 +14,14 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -24,7 +29,15 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        // Keyset scans ordered by (created_at, id): feed, topic, author and global lists
+        @Index(name = "idx_posts_topic_created", columnList = "topic_id, created_at, id"),
+        @Index(name = "idx_posts_author_created", columnList = "author_id, created_at, id"),
+        @Index(name = "idx_posts_created", columnList = "created_at, id"),
+        // Same scans ordered by last activity
+        @Index(name = "idx_posts_topic_activity", columnList = "topic_id, last_activity_at, id"),
+        @Index(name = "idx_posts_activity", columnList = "last_activity_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,8 +45,10 @@ import lombok.Setter;
 @Builder
 public class Post {
 
+    // Pooled sequence (a table on MySQL) so inserts can be batched; aligned by IdSequences
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_ids")
+    @SequenceGenerator(name = "post_ids", sequenceName = "posts_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 150)
@@ -42,10 +57,31 @@ public class Post {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
-    @CreationTimestamp
+    // Set on persist unless already given, so imports keep their original dates
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Null for rows written before the column existed
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    // Denormalized activity, maintained in the background by PostActivityService:
+    // may lag behind the comments table by one flush interval. Never written
+    // by entity updates, which would overwrite concurrent increments
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long commentCount;
+
+    // Creation date, then date of the latest comment; null only before the backfill
+    @Column(updatable = false)
+    private LocalDateTime lastActivityAt;
+
+    // Optimistic lock, also part of the list ETags
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     // Relations
 
     // Author of the post
@@ -62,4 +98,14 @@ public class Post {
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private Set<Comment> comments = new HashSet<>();
-}
\ No newline at end of file
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (lastActivityAt == null) {
+            lastActivityAt = createdAt;
+        }
+    }
+}
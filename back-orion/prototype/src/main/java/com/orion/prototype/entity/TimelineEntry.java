@@ -0,0 +1,52 @@
+package com.orion.prototype.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Materialized feed row: post {postId} appears in the timeline of user {userId}.
+// Plain id columns (no foreign keys) so fan-out and trimming stay bulk statements.
+@Entity
+@Table(name = "timeline_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_timeline_user_post", columnNames = { "user_id", "post_id" })
+}, indexes = {
+        @Index(name = "idx_timeline_user_created", columnList = "user_id, created_at, post_id"),
+        @Index(name = "idx_timeline_user_topic", columnList = "user_id, topic_id"),
+        @Index(name = "idx_timeline_post", columnList = "post_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimelineEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(name = "topic_id", nullable = false)
+    private Long topicId;
+
+    // Copy of the post creation date, the timeline sort key
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.orion.prototype.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Single row recording whether timelines are currently maintained. Cleared when the
+// application starts with the mode off, so switching it back on rebuilds every timeline.
+@Entity
+@Table(name = "timeline_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineState {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private boolean maintained;
+}
@@ -3,6 +3,8 @@ package com.orion.prototype.entity;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -39,6 +41,11 @@ public class User {
     @Column(nullable = false)
     private String password;
 
+    // Incremented on profile changes so older access tokens are rejected
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long tokenVersion;
+
     // Relations
 
     // A user can have multiple posts
@@ -40,8 +40,9 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<Map<String, String>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
         Map<String, String> response = new HashMap<>();
-        response.put("error", "User already exists");
-        response.put("message", "The username or email is already taken.");
+        // Signup conflicts are answered by AuthService; this is any other constraint violation
+        response.put("error", "Conflict");
+        response.put("message", "La requête est en conflit avec l'état des données.");
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
 }
@@ -1,15 +1,48 @@
 package com.orion.prototype.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.orion.prototype.dto.CommentDto;
 import com.orion.prototype.entity.Comment;
-import com.orion.prototype.entity.Post;
 import com.orion.prototype.entity.User;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByAuthor(User author);
 
-    List<Comment> findByPost(Post post);
-}
\ No newline at end of file
+    // Comments of a whole page of posts, with their authors, in one query
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findAllByPostIdInOrderByCreatedAtAsc(Collection<Long> postIds);
+
+    // Thread of a post, oldest first, projected with the author name;
+    // walks idx_comments_post_created so only the rows of the page are read
+    @Query("""
+            select new com.orion.prototype.dto.CommentDto(c.id, c.content, c.createdAt, a.username)
+            from Comment c
+            join c.author a
+            where c.post.id = :postId
+            order by c.createdAt asc, c.id asc
+            """)
+    List<CommentDto> findThread(@Param("postId") Long postId, Limit limit);
+
+    // Thread page after the (createdAt, id) keyset cursor
+    @Query("""
+            select new com.orion.prototype.dto.CommentDto(c.id, c.content, c.createdAt, a.username)
+            from Comment c
+            join c.author a
+            where c.post.id = :postId
+              and (c.createdAt > :createdAt or (c.createdAt = :createdAt and c.id > :id))
+            order by c.createdAt asc, c.id asc
+            """)
+    List<CommentDto> findThreadAfter(@Param("postId") Long postId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Limit limit);
+}
@@ -1,18 +1,93 @@
 package com.orion.prototype.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.orion.prototype.dto.VersionStamp;
 import com.orion.prototype.entity.Post;
 
-public interface PostRepository extends JpaRepository<Post, Long> {
+public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
+    // List reads fetch author and topic in the same query; comments are loaded
+    // per page with CommentRepository.findAllByPostIdInOrderByCreatedAtAsc
+    @EntityGraph(attributePaths = { "author", "topic" })
     List<Post> findAllByOrderByCreatedAtDesc();
 
     List<Post> findAllByAuthorIdOrderByCreatedAtDesc(Long authorId);
 
+    @EntityGraph(attributePaths = { "author", "topic" })
     List<Post> findAllByAuthorId(Long authorId, Sort sort);
 
+    @EntityGraph(attributePaths = { "author", "topic" })
     List<Post> findAllByTopicId(Long topicId, Sort sort);
+
+    // Batches of posts in id order, used to rebuild the search index
+    List<Post> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Single post with everything PostDto needs in one query
+    @EntityGraph(attributePaths = { "author", "topic", "comments", "comments.author" })
+    Optional<Post> findDetailedById(Long id);
+
+    // Feed: posts of the given topics (those the user follows, from SubscriptionCache), newest first
+    @Query("""
+            select p from Post p
+            join fetch p.author
+            join fetch p.topic
+            where p.topic.id in :topicIds
+            order by p.createdAt desc, p.id desc
+            """)
+    List<Post> findFeed(@Param("topicIds") Collection<Long> topicIds, Limit limit);
+
+    // Feed page after the (createdAt, id) keyset cursor
+    @Query("""
+            select p from Post p
+            join fetch p.author
+            join fetch p.topic
+            where p.topic.id in :topicIds
+              and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id))
+            order by p.createdAt desc, p.id desc
+            """)
+    List<Post> findFeedAfter(@Param("topicIds") Collection<Long> topicIds,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Limit limit);
+
+    // (topic id, post count, latest post date) rows, for TopicStats
+    @Query("select p.topic.id, count(p), max(p.createdAt) from Post p group by p.topic.id")
+    List<Object[]> countByTopic();
+
+    // True while some posts have never had their activity computed (rows older than the columns)
+    boolean existsByLastActivityAtIsNull();
+
+    // Activity counters recomputed from the comments, for posts not computed yet
+    @Transactional
+    @Modifying
+    @Query("""
+            update Post p set
+                p.commentCount = (select count(c) from Comment c where c.post = p),
+                p.lastActivityAt = coalesce((select max(c.createdAt) from Comment c where c.post = p), p.createdAt)
+            where p.lastActivityAt is null
+            """)
+    int backfillActivity();
+
+    // Version stamp backing conditional GETs of a post and its comments
+    @Query("""
+            select new com.orion.prototype.dto.VersionStamp(
+                count(p), coalesce(sum(p.version), 0), max(coalesce(p.updatedAt, p.createdAt)),
+                (select count(c) from Comment c where c.post.id = :id),
+                (select max(c.createdAt) from Comment c where c.post.id = :id))
+            from Post p
+            where p.id = :id
+            """)
+    VersionStamp findStampById(@Param("id") Long id);
 }
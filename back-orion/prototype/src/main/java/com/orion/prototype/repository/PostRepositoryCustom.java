@@ -0,0 +1,31 @@
+package com.orion.prototype.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+
+import com.orion.prototype.dto.PostSummaryDto;
+import com.orion.prototype.entity.Post;
+
+public interface PostRepositoryCustom {
+
+    /**
+     * Keyset page of posts ordered by {@code order} then by id.
+     * {@code authorId} and {@code topicId} are optional filters; when
+     * {@code afterId} is set, only rows strictly after ({@code afterValue},
+     * {@code afterId}) in that order are returned.
+     */
+    List<Post> findPage(Long authorId, Long topicId, Sort.Order order,
+            Object afterValue, Long afterId, int limit);
+
+    /**
+     * Same page as {@link #findPage} projected to summaries: an excerpt instead
+     * of the content and the denormalized comment count instead of the comments.
+     */
+    List<PostSummaryDto> findSummaryPage(Long authorId, Long topicId, Sort.Order order,
+            Object afterValue, Long afterId, int limit);
+
+    // Summaries of the given posts, in no particular order
+    List<PostSummaryDto> findSummariesByIds(Collection<Long> ids);
+}
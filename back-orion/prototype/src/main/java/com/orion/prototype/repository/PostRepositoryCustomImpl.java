@@ -0,0 +1,97 @@
+package com.orion.prototype.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Sort;
+
+import com.orion.prototype.dto.PostSummaryDto;
+import com.orion.prototype.entity.Post;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    private static final int EXCERPT_LENGTH = 200;
+
+    // Sortable properties -> JPQL path (aliases: p = post, a = author)
+    private static final Map<String, String> SORT_PATHS = Map.of(
+            "createdAt", "p.createdAt",
+            "title", "p.title",
+            "author.username", "a.username",
+            "lastActivityAt", "p.lastActivityAt");
+
+    private static final String POST_SELECT = "select p from Post p join fetch p.author a join fetch p.topic t";
+
+    private static final String SUMMARY_SELECT = "select new com.orion.prototype.dto.PostSummaryDto("
+            + "p.id, p.title, substring(p.content, 1, " + EXCERPT_LENGTH + "), p.createdAt, t.id, t.name, a.username, "
+            + "p.commentCount, p.lastActivityAt) "
+            + "from Post p join p.author a join p.topic t";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Post> findPage(Long authorId, Long topicId, Sort.Order order,
+            Object afterValue, Long afterId, int limit) {
+        return createPageQuery(POST_SELECT, Post.class, authorId, topicId, order, afterValue, afterId, limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<PostSummaryDto> findSummaryPage(Long authorId, Long topicId, Sort.Order order,
+            Object afterValue, Long afterId, int limit) {
+        return createPageQuery(SUMMARY_SELECT, PostSummaryDto.class, authorId, topicId, order, afterValue, afterId,
+                limit).getResultList();
+    }
+
+    @Override
+    public List<PostSummaryDto> findSummariesByIds(Collection<Long> ids) {
+        return entityManager.createQuery(SUMMARY_SELECT + " where p.id in :ids", PostSummaryDto.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    private <T> TypedQuery<T> createPageQuery(String select, Class<T> resultType, Long authorId, Long topicId,
+            Sort.Order order, Object afterValue, Long afterId, int limit) {
+        String path = SORT_PATHS.get(order.getProperty());
+        if (path == null) {
+            throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+        }
+        String sortExpr = order.isIgnoreCase() ? "lower(" + path + ")" : path;
+        String valueExpr = order.isIgnoreCase() ? "lower(:afterValue)" : ":afterValue";
+        String direction = order.isAscending() ? "asc" : "desc";
+        String comparator = order.isAscending() ? ">" : "<";
+
+        StringBuilder jpql = new StringBuilder(select).append(" where 1 = 1");
+        if (authorId != null) {
+            jpql.append(" and a.id = :authorId");
+        }
+        if (topicId != null) {
+            jpql.append(" and t.id = :topicId");
+        }
+        if (afterId != null) {
+            jpql.append(" and (").append(sortExpr).append(' ').append(comparator).append(' ').append(valueExpr)
+                    .append(" or (").append(sortExpr).append(" = ").append(valueExpr)
+                    .append(" and p.id ").append(comparator).append(" :afterId))");
+        }
+        jpql.append(" order by ").append(sortExpr).append(' ').append(direction)
+                .append(", p.id ").append(direction);
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), resultType);
+        if (authorId != null) {
+            query.setParameter("authorId", authorId);
+        }
+        if (topicId != null) {
+            query.setParameter("topicId", topicId);
+        }
+        if (afterId != null) {
+            query.setParameter("afterValue", afterValue);
+            query.setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit);
+    }
+}
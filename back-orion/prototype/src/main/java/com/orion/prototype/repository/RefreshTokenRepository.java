@@ -1,15 +1,43 @@
 package com.orion.prototype.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.orion.prototype.entity.RefreshToken;
 import com.orion.prototype.entity.User;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByToken(String token);
+    // The user comes with the token, refresh needs it to issue the new access token
+    @Query("select t from RefreshToken t join fetch t.user where t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
 
-    void deleteAllByUser(User user);
+    // Single statement, rows are not loaded first
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.user = :user")
+    int deleteAllByUser(@Param("user") User user);
+
+    @Query("select t.id from RefreshToken t where t.expiryDate < :now order by t.expiryDate")
+    List<Long> findExpiredIds(@Param("now") Instant now, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Rows written before tokens were hashed hold the raw value, never 64 characters long
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.tokenHash is null or length(t.tokenHash) <> 64")
+    int deleteUnhashed();
 }
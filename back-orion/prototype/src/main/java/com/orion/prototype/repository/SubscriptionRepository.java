@@ -1,13 +1,48 @@
 package com.orion.prototype.repository;
 
 import com.orion.prototype.entity.Subscription;
-import com.orion.prototype.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
-    List<Subscription> findByUser(User user);
-    Optional<Subscription> findByUserAndTopicId(User user, Long topicId);
-}
\ No newline at end of file
+    // (subscription id, topic id) rows of a user, without loading any entity
+    @Query("select s.id, s.topic.id from Subscription s where s.user.id = :userId")
+    List<Object[]> findIdsByUserId(@Param("userId") Long userId);
+
+    // (topic id, subscriber count) rows, for TopicStats
+    @Query("select s.topic.id, count(s) from Subscription s group by s.topic.id")
+    List<Object[]> countByTopic();
+
+    // Topics among topicIds the user follows; a plain read, no row is locked
+    @Query("select s.topic.id from Subscription s where s.user.id = :userId and s.topic.id in :topicIds")
+    List<Long> findTopicIds(@Param("userId") Long userId, @Param("topicIds") Collection<Long> topicIds);
+
+    // Deletes the subscription only if it belongs to the user; returns the row count
+    @Transactional
+    @Modifying
+    @Query("delete from Subscription s where s.id = :id and s.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Subscribe a user to several topics in one statement; unknown topics are skipped through
+    // the join, a row that already exists fails the whole statement (uk_subscriptions_user_topic)
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into subscriptions (user_id, topic_id)
+            select :userId, t.id
+            from topics t
+            where t.id in (:topicIds)
+            """, nativeQuery = true)
+    int insertAll(@Param("userId") Long userId, @Param("topicIds") Collection<Long> topicIds);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Subscription s where s.user.id = :userId and s.topic.id in :topicIds")
+    int deleteByUserIdAndTopicIdIn(@Param("userId") Long userId, @Param("topicIds") Collection<Long> topicIds);
+}
@@ -0,0 +1,124 @@
+package com.orion.prototype.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.TimelineEntry;
+
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+
+    // Append a post to the timeline of every subscriber of its topic
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert ignore into timeline_entries (user_id, post_id, topic_id, created_at)
+            select s.user_id, p.id, p.topic_id, p.created_at
+            from posts p
+            join subscriptions s on s.topic_id = p.topic_id
+            where p.id = :postId
+            """, nativeQuery = true)
+    int fanOut(@Param("postId") Long postId);
+
+    // Copy the latest posts of a topic into the timeline of a new subscriber
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert ignore into timeline_entries (user_id, post_id, topic_id, created_at)
+            select :userId, p.id, p.topic_id, p.created_at
+            from posts p
+            where p.topic_id = :topicId
+            order by p.created_at desc, p.id desc
+            limit :limit
+            """, nativeQuery = true)
+    int backfill(@Param("userId") Long userId, @Param("topicId") Long topicId, @Param("limit") int limit);
+
+    // Rebuild every timeline from the subscriptions, newest :limit posts per user
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert ignore into timeline_entries (user_id, post_id, topic_id, created_at)
+            select ranked.user_id, ranked.post_id, ranked.topic_id, ranked.created_at
+            from (
+                select s.user_id, p.id as post_id, p.topic_id, p.created_at,
+                    row_number() over (partition by s.user_id order by p.created_at desc, p.id desc) as rn
+                from subscriptions s
+                join posts p on p.topic_id = s.topic_id
+            ) ranked
+            where ranked.rn <= :limit
+            """, nativeQuery = true)
+    int backfillAll(@Param("limit") int limit);
+
+    // Drop the entries of every timeline beyond its :limit newest
+    @Transactional
+    @Modifying
+    @Query(value = """
+            delete from timeline_entries
+            where id in (
+                select id from (
+                    select e.id,
+                        row_number() over (partition by e.user_id order by e.created_at desc, e.post_id desc) as rn
+                    from timeline_entries e
+                ) ranked
+                where ranked.rn > :limit
+            )
+            """, nativeQuery = true)
+    int trim(@Param("limit") int limit);
+
+    // Same, for one timeline
+    @Transactional
+    @Modifying
+    @Query(value = """
+            delete from timeline_entries
+            where id in (
+                select id from (
+                    select e.id, row_number() over (order by e.created_at desc, e.post_id desc) as rn
+                    from timeline_entries e
+                    where e.user_id = :userId
+                ) ranked
+                where ranked.rn > :limit
+            )
+            """, nativeQuery = true)
+    int trimUser(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TimelineEntry e where e.userId = :userId and e.topicId = :topicId")
+    int deleteByUserIdAndTopicId(@Param("userId") Long userId, @Param("topicId") Long topicId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TimelineEntry e where e.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+
+    @Query("""
+            select p from TimelineEntry e
+            join Post p on p.id = e.postId
+            join fetch p.author
+            join fetch p.topic
+            where e.userId = :userId
+            order by e.createdAt desc, e.postId desc
+            """)
+    List<Post> findTimeline(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+            select p from TimelineEntry e
+            join Post p on p.id = e.postId
+            join fetch p.author
+            join fetch p.topic
+            where e.userId = :userId
+              and (e.createdAt < :createdAt or (e.createdAt = :createdAt and e.postId < :postId))
+            order by e.createdAt desc, e.postId desc
+            """)
+    List<Post> findTimelineAfter(@Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("postId") Long postId,
+            Limit limit);
+}
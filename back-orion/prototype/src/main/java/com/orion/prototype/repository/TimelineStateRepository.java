@@ -0,0 +1,8 @@
+package com.orion.prototype.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.orion.prototype.entity.TimelineState;
+
+public interface TimelineStateRepository extends JpaRepository<TimelineState, Integer> {
+}
@@ -0,0 +1,27 @@
+package com.orion.prototype.security;
+
+import java.security.Principal;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Principal installed by {@link JwtAuthenticationFilter}, built from the token
+ * claims so services can work on the user id without loading the user.
+ */
+public record AuthenticatedUser(Long id, String email, String username, long tokenVersion,
+        String tokenId, long expiresAtMillis) implements Principal {
+
+    public static AuthenticatedUser of(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Utilisateur introuvable");
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
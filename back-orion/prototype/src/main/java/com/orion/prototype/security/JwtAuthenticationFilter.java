@@ -18,10 +18,17 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Stateless, shared across requests
+    private static final WebAuthenticationDetailsSource DETAILS_SOURCE = new WebAuthenticationDetailsSource();
+
     private final JwtService jwtService;
+    private final TokenVersions tokenVersions;
+    private final TokenDenylist tokenDenylist;
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, TokenVersions tokenVersions, TokenDenylist tokenDenylist) {
         this.jwtService = jwtService;
+        this.tokenVersions = tokenVersions;
+        this.tokenDenylist = tokenDenylist;
     }
 
     @Override
@@ -38,18 +45,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7); // enlever "Bearer "
-        String email;
+        AuthenticatedUser user;
 
         try {
-            email = jwtService.extractEmail(token);
+            user = jwtService.authenticate(token);
         } catch (JwtException | IllegalArgumentException e) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(email, null, null);
-            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        // Claims issued before the last profile change are stale, revoked tokens are refused
+        if (!tokenVersions.isCurrent(user) || tokenDenylist.isRevoked(user.tokenId())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(user, null, null);
+            authToken.setDetails(DETAILS_SOURCE.buildDetails(request));
 
             SecurityContextHolder.getContext().setAuthentication(authToken);
         }
@@ -2,11 +2,17 @@ package com.orion.prototype.security;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.orion.prototype.entity.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.io.Decoders;
@@ -15,28 +21,59 @@ import io.jsonwebtoken.io.Decoders;
 public class JwtService {
 
     private static final long EXPIRATION_TIME = 1000 * 60 * 60; // 1h
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String USERNAME_CLAIM = "username";
+    private static final String VERSION_CLAIM = "ver";
     private final Key secretKey;
+    // Thread-safe, built once instead of per request
+    private final JwtParser parser;
+    private final VerifiedTokenCache tokenCache;
 
-    public JwtService(@Value("${app.security.jwt.secret}") String secret) {
+    public JwtService(@Value("${app.security.jwt.secret}") String secret, VerifiedTokenCache tokenCache) {
         byte[] keyBytes = Decoders.BASE64.decode(secret);
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.tokenCache = tokenCache;
     }
 
-    public String generateToken(String email) {
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(email)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(USERNAME_CLAIM, user.getUsername())
+                .claim(VERSION_CLAIM, user.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    // Verified tokens are served from the cache until their expiration
+    public AuthenticatedUser authenticate(String token) {
+        AuthenticatedUser user = tokenCache.get(token);
+        if (user != null) {
+            return user;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        // Tokens without an id or expiration could not be revoked
+        if (userId == null || version == null || claims.getId() == null || claims.getExpiration() == null) {
+            throw new MalformedJwtException("Claims utilisateur manquants");
+        }
+        long expiresAt = claims.getExpiration().getTime();
+        user = new AuthenticatedUser(userId.longValue(), claims.getSubject(),
+                claims.get(USERNAME_CLAIM, String.class), version.longValue(), claims.getId(), expiresAt);
+        tokenCache.put(token, user, expiresAt);
+        return user;
+    }
+
+    // Drop cached verifications of a user's tokens, e.g. after logout or a profile change
+    public void evictUser(Long userId) {
+        tokenCache.invalidateUser(userId);
     }
 }
@@ -0,0 +1,245 @@
+package com.orion.prototype.security;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rate limits the public auth endpoints per client IP, and login attempts
+ * per identifier whatever the IP, before any password hashing or query runs.
+ * Limits come from app.rate-limit.{login,register,refresh,identifier}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = "/api/auth/";
+    private static final String LOGIN = "login";
+    // Larger login bodies are passed through without the identifier check
+    private static final int MAX_BODY_BYTES = 4096;
+
+    private final boolean enabled;
+    private final Map<String, RateLimiter> perIp = new HashMap<>();
+    private final RateLimiter perIdentifier;
+    private final ObjectMapper objectMapper;
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimitFilter(Environment environment, ObjectMapper objectMapper) {
+        this.enabled = environment.getProperty("app.rate-limit.enabled", Boolean.class, true);
+        int maxKeys = environment.getProperty("app.rate-limit.max-keys", Integer.class, 100_000);
+        perIp.put(LOGIN, limiter(environment, LOGIN, 10, maxKeys));
+        perIp.put("register", limiter(environment, "register", 5, maxKeys));
+        perIp.put("refresh", limiter(environment, "refresh", 30, maxKeys));
+        this.perIdentifier = limiter(environment, "identifier", 5, maxKeys);
+        this.objectMapper = objectMapper;
+    }
+
+    private static RateLimiter limiter(Environment environment, String route, int defaultLimit, int maxKeys) {
+        String prefix = "app.rate-limit." + route;
+        return new RateLimiter(
+                environment.getProperty(prefix + ".capacity", Integer.class, defaultLimit),
+                environment.getProperty(prefix + ".per-minute", Integer.class, defaultLimit),
+                maxKeys);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || route(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        String route = route(request);
+
+        long wait = perIp.get(route).tryAcquire(request.getRemoteAddr());
+        if (wait == 0 && LOGIN.equals(route)) {
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            String identifier = identifier(cached.body());
+            if (identifier != null) {
+                wait = perIdentifier.tryAcquire(identifier);
+            }
+            request = cached;
+        }
+
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    // Rejections per limiter: login, register, refresh and identifier
+    public Map<String, Long> rejectedCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        perIp.forEach((route, limiter) -> counts.put(route, limiter.rejectedCount()));
+        counts.put("identifier", perIdentifier.rejectedCount());
+        return counts;
+    }
+
+    // New keys limited together because their limiter was full of active keys
+    public Map<String, Long> overflowCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        perIp.forEach((route, limiter) -> counts.put(route, limiter.overflowCount()));
+        counts.put("identifier", perIdentifier.overflowCount());
+        return counts;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-ms:60000}")
+    public void evictIdle() {
+        perIp.values().forEach(RateLimiter::evictIdle);
+        perIdentifier.evictIdle();
+    }
+
+    // Route name for the limited endpoints, null otherwise
+    private String route(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (!uri.startsWith(PREFIX)) {
+            return null;
+        }
+        String route = uri.substring(PREFIX.length());
+        return perIp.containsKey(route) ? route : null;
+    }
+
+    private String identifier(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode value = objectMapper.readTree(body).get("identifier");
+            return value != null && value.isTextual() ? value.asText().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            // Malformed bodies are rejected by the controller
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        rejected.increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "error", "Too Many Requests",
+                "message", "Trop de tentatives, réessayez plus tard"));
+    }
+
+    // Reads the start of the body once and replays it to the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+        private final boolean complete;
+        private final ServletInputStream remaining;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            ServletInputStream in = request.getInputStream();
+            this.head = in.readNBytes(MAX_BODY_BYTES + 1);
+            this.complete = head.length <= MAX_BODY_BYTES;
+            this.remaining = in;
+        }
+
+        byte[] body() {
+            return complete ? head : null;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream buffered = new ByteArrayInputStream(head);
+            InputStream in = complete ? buffered : new SequenceInputStream(buffered, remaining);
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = in.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = in.read(buffer, offset, length);
+                    finished = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return complete || buffered.available() > 0 || remaining.isReady();
+                }
+
+                // A buffered body is all there: the listener reads it at once. Otherwise the
+                // original stream drives the listener, which drains the buffered head first.
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    if (!complete) {
+                        remaining.setReadListener(new ReadListener() {
+                            @Override
+                            public void onDataAvailable() throws IOException {
+                                listener.onDataAvailable();
+                            }
+
+                            @Override
+                            public void onAllDataRead() throws IOException {
+                                if (buffered.available() > 0) {
+                                    listener.onDataAvailable();
+                                }
+                                listener.onAllDataRead();
+                            }
+
+                            @Override
+                            public void onError(Throwable t) {
+                                listener.onError(t);
+                            }
+                        });
+                        return;
+                    }
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+    }
+}
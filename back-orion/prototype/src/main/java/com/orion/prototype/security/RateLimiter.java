@@ -0,0 +1,141 @@
+package com.orion.prototype.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets keyed by string, without locks. Each bucket is a single
+ * AtomicLong holding the time at which it will be full again (GCRA form of
+ * a token bucket), updated with a CAS loop. Keys are spread over stripes,
+ * each bounded in size; a bucket that has refilled is idle and can be
+ * dropped without changing any decision. Active buckets are never dropped:
+ * while a stripe is full of them, its new keys share overflow buckets,
+ * chosen by hash, so a noisy key only throttles the few keys it collides
+ * with rather than every newcomer of the stripe.
+ */
+public class RateLimiter {
+
+    private static final int STRIPES = 16;
+    private static final int OVERFLOWS_PER_STRIPE = 64;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeysPerStripe;
+    private final List<Map<String, AtomicLong>> stripes;
+    // Per stripe, earliest time one of its buckets can become idle; no eviction pass before
+    private final AtomicLongArray nextIdleAt = new AtomicLongArray(STRIPES);
+    private final AtomicReferenceArray<AtomicLong> overflows =
+            new AtomicReferenceArray<>(STRIPES * OVERFLOWS_PER_STRIPE);
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    public RateLimiter(int capacity, int refillPerMinute, int maxKeys) {
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalArgumentException("capacity et refillPerMinute doivent être positifs");
+        }
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        List<Map<String, AtomicLong>> stripes = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new ConcurrentHashMap<>());
+        }
+        this.stripes = List.copyOf(stripes);
+    }
+
+    /**
+     * Takes one token for the key. Returns 0 when allowed, otherwise the
+     * nanoseconds to wait before a token is available.
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        int hash = spread(key);
+        int index = hash & (STRIPES - 1);
+        Map<String, AtomicLong> stripe = stripes.get(index);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket == null) {
+            if (stripe.size() >= maxKeysPerStripe && nextIdleAt.get(index) - now <= 0) {
+                evictIdle(index, now);
+            }
+            if (stripe.size() < maxKeysPerStripe) {
+                bucket = stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+            } else {
+                overflowed.increment();
+                // Bits above the stripe index pick the overflow bucket within the stripe
+                int slot = index * OVERFLOWS_PER_STRIPE + ((hash >>> 4) & (OVERFLOWS_PER_STRIPE - 1));
+                bucket = overflows.get(slot);
+                if (bucket == null) {
+                    overflows.compareAndSet(slot, null, new AtomicLong(now));
+                    bucket = overflows.get(slot);
+                }
+            }
+        }
+
+        while (true) {
+            long fullAt = bucket.get();
+            long start = fullAt - now > 0 ? fullAt : now;
+            long wait = start - now - burstToleranceNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    // Requests of new keys that went through an overflow bucket
+    public long overflowCount() {
+        return overflowed.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    // Drops buckets that are full again
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (int i = 0; i < STRIPES; i++) {
+            evictIdle(i, now);
+        }
+    }
+
+    private void evictIdle(int index, long now) {
+        long earliest = now + burstToleranceNanos + emissionIntervalNanos;
+        var buckets = stripes.get(index).values().iterator();
+        while (buckets.hasNext()) {
+            long fullAt = buckets.next().get();
+            if (fullAt - now <= 0) {
+                buckets.remove();
+            } else if (fullAt - earliest < 0) {
+                earliest = fullAt;
+            }
+        }
+        nextIdleAt.set(index, earliest);
+    }
+
+    private static int spread(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
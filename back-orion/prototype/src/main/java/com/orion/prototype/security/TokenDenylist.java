@@ -0,0 +1,116 @@
+package com.orion.prototype.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revoked access tokens, by jti, until their expiration. A Bloom filter sits
+ * in front of the exact set so the common case (token not revoked) is a few
+ * bit reads, with no allocation and no map lookup. Bloom filters cannot
+ * forget, so the bits are rebuilt from the exact set when entries expire.
+ */
+@Component
+public class TokenDenylist {
+
+    private static final int HASHES = 7;
+
+    private final int bitCount;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // Replaced as a whole on rebuild; bits are only set under the lock
+    private volatile AtomicLongArray bits;
+    private final Object writeLock = new Object();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public TokenDenylist(@Value("${app.security.jwt.denylist.expected-size:100000}") int expectedSize) {
+        // About 1% false positives at the expected size: 9.6 bits per entry, 7 hashes
+        long bitsNeeded = (long) Math.ceil(Math.max(expectedSize, 64) * 9.6);
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, (bitsNeeded + 63) & ~63L);
+        this.bits = new AtomicLongArray(bitCount / 64);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!mightContain(bits, tokenId)) {
+            return false;
+        }
+        if (revoked.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (writeLock) {
+            revoked.put(tokenId, expiresAtMillis);
+            add(bits, tokenId);
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    public long falsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    // Forget expired tokens and rebuild the bits without them
+    @Scheduled(fixedDelayString = "${app.security.jwt.denylist.purge-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            if (!revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+                return;
+            }
+            AtomicLongArray rebuilt = new AtomicLongArray(bitCount / 64);
+            revoked.keySet().forEach(tokenId -> add(rebuilt, tokenId));
+            bits = rebuilt;
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray array, String tokenId) {
+        long hash = hash64(tokenId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((array.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(AtomicLongArray array, String tokenId) {
+        long hash = hash64(tokenId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = bit >>> 6;
+            array.set(word, array.get(word) | (1L << bit));
+        }
+    }
+
+    // FNV-1a over the chars with a final mix, computed without allocating
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
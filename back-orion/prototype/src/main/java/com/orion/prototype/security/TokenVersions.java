@@ -0,0 +1,46 @@
+package com.orion.prototype.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.orion.prototype.repository.UserRepository;
+
+/**
+ * Current token version of each user, loaded once per user and updated when
+ * the profile changes. A token carrying an older version has stale claims and
+ * is rejected.
+ */
+@Component
+public class TokenVersions {
+
+    private final UserRepository userRepository;
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    public TokenVersions(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public boolean isCurrent(AuthenticatedUser user) {
+        Long version = versions.get(user.id());
+        if (version == null) {
+            // Unknown users are not cached, the lookup is repeated until they exist
+            version = userRepository.findTokenVersionById(user.id()).orElse(null);
+            if (version == null) {
+                return false;
+            }
+            versions.putIfAbsent(user.id(), version);
+        }
+        return version == user.tokenVersion();
+    }
+
+    public void update(Long userId, long version) {
+        versions.put(userId, version);
+    }
+
+    // Deleted user: the next lookup finds nothing and the user's tokens are refused
+    public void forget(Long userId) {
+        versions.remove(userId);
+    }
+}
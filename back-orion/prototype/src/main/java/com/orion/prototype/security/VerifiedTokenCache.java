@@ -0,0 +1,113 @@
+package com.orion.prototype.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access tokens whose signature was already verified, keyed by a SHA-256 of
+ * the token. Entries never outlive the token's own expiration, and the map is
+ * bounded so unique tokens cannot grow it without limit.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private record Entry(AuthenticatedUser user, long expiresAtMillis) {
+    }
+
+    private final int maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${app.security.jwt.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // Principal of a verified, unexpired token, or null
+    public AuthenticatedUser get(String token) {
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.user();
+    }
+
+    public void put(String token, AuthenticatedUser user, long expiresAtMillis) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(hash(token), new Entry(user, expiresAtMillis));
+    }
+
+    // Invalidation hooks
+    public void invalidate(String token) {
+        entries.remove(hash(token));
+    }
+
+    public void invalidateUser(Long userId) {
+        entries.values().removeIf(entry -> entry.user().id().equals(userId));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.jwt.cache.purge-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+    }
+
+    // Drop expired entries first; if still full, drop arbitrary ones down to 90% of the bound
+    private void evict() {
+        purgeExpired();
+        Iterator<String> keys = entries.keySet().iterator();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
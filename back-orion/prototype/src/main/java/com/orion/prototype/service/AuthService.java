@@ -2,9 +2,9 @@ package com.orion.prototype.service;
 
 import java.util.Optional;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -16,24 +16,37 @@ import com.orion.prototype.dto.UpdateProfileRequest;
 import com.orion.prototype.dto.UpdateProfileResponse;
 import com.orion.prototype.entity.User;
 import com.orion.prototype.repository.UserRepository;
+import com.orion.prototype.security.AuthenticatedUser;
 import com.orion.prototype.security.JwtService;
+import com.orion.prototype.security.PasswordHasher;
+import com.orion.prototype.security.TokenDenylist;
+import com.orion.prototype.security.TokenVersions;
 
 @Service
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
+    private final TokenVersions tokenVersions;
+    private final TokenDenylist tokenDenylist;
+    private final PostVersions postVersions;
 
     public AuthService(UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
+            PasswordHasher passwordHasher,
             JwtService jwtService,
-            RefreshTokenService refreshTokenService) {
+            RefreshTokenService refreshTokenService,
+            TokenVersions tokenVersions,
+            TokenDenylist tokenDenylist,
+            PostVersions postVersions) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
         this.refreshTokenService = refreshTokenService;
+        this.tokenVersions = tokenVersions;
+        this.tokenDenylist = tokenDenylist;
+        this.postVersions = postVersions;
     }
 
     public UserDto register(RegisterRequest request) {
@@ -44,11 +57,15 @@ public class AuthService {
         User user = User.builder()
                 .username(request.username())
                 .email(request.email())
-                .password(passwordEncoder.encode(request.password()))
+                .password(passwordHasher.encode(request.password()))
                 .build();
 
-        User saved = userRepository.save(user);
-        return toDto(saved);
+        try {
+            return toDto(userRepository.save(user));
+        } catch (DataIntegrityViolationException ex) {
+            // Username taken, or the same email registered concurrently
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Cet utilisateur existe déjà");
+        }
     }
 
     public LoginResponse login(LoginRequest request) {
@@ -63,43 +80,45 @@ public class AuthService {
         User user = userOptional.orElseThrow(() -> new ResponseStatusException(
                 HttpStatus.UNAUTHORIZED, "Identifiant incorrect"));
 
-        if (!passwordEncoder.matches(request.password(), user.getPassword())) {
+        if (!passwordHasher.matches(request.password(), user.getPassword())) {
             throw new ResponseStatusException(
                     HttpStatus.UNAUTHORIZED, "Identifiant incorrect");
         }
 
-        String accessToken = jwtService.generateToken(user.getEmail());
-        var refreshToken = refreshTokenService.createForUser(user);
+        // Bring older hashes up to the configured cost while the raw password is at hand
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHasher.encode(request.password()));
+            user = userRepository.save(user);
+        }
 
-        return new LoginResponse(accessToken, refreshToken.getToken(), user.getUsername(), user.getId());
+        String accessToken = jwtService.generateToken(user);
+        String refreshToken = refreshTokenService.createForUser(user);
+
+        return new LoginResponse(accessToken, refreshToken, user.getUsername(), user.getId());
     }
 
     public LoginResponse refresh(String refreshTokenValue) {
         var refreshToken = refreshTokenService.validate(refreshTokenValue);
         var user = refreshToken.getUser();
 
-        String accessToken = jwtService.generateToken(user.getEmail());
-        var newRefreshToken = refreshTokenService.createForUser(user);
+        String accessToken = jwtService.generateToken(user);
+        String newRefreshToken = refreshTokenService.createForUser(user);
 
-        return new LoginResponse(accessToken, newRefreshToken.getToken(), user.getUsername(), user.getId());
+        return new LoginResponse(accessToken, newRefreshToken, user.getUsername(), user.getId());
     }
 
-    public void logout(org.springframework.security.core.Authentication authentication) {
-        String email = (String) authentication.getPrincipal();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Utilisateur introuvable"));
-        refreshTokenService.deleteForUser(user);
+    public void logout(Authentication authentication) {
+        AuthenticatedUser principal = AuthenticatedUser.of(authentication);
+        refreshTokenService.deleteForUser(userRepository.getReferenceById(principal.id()));
+        // The access token in hand stops working now rather than at its expiration
+        tokenDenylist.revoke(principal.tokenId(), principal.expiresAtMillis());
+        jwtService.evictUser(principal.id());
     }
 
-    // Get current user info (as DTO)
+    // Get current user info (as DTO), straight from the token claims
     public UserDto getCurrentUser(Authentication authentication) {
-        String email = (String) authentication.getPrincipal();
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Utilisateur introuvable"));
-
-        return toDto(user);
+        AuthenticatedUser principal = AuthenticatedUser.of(authentication);
+        return new UserDto(principal.id(), principal.username(), principal.email());
     }
 
     // Conversion User → UserDto
@@ -108,16 +127,17 @@ public class AuthService {
     }
 
     public UpdateProfileResponse updateProfile(Authentication authentication, UpdateProfileRequest request) {
-        String emailPrincipal = (String) authentication.getPrincipal();
+        AuthenticatedUser principal = AuthenticatedUser.of(authentication);
 
-        User user = userRepository.findByEmail(emailPrincipal)
+        User user = userRepository.findById(principal.id())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Utilisateur introuvable"));
 
         // Always require current password
-        if (!passwordEncoder.matches(request.password(), user.getPassword())) {
+        if (!passwordHasher.matches(request.password(), user.getPassword())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Mot de passe actuel incorrect");
         }
 
+        boolean usernameChanged = false;
         boolean passwordChanged = false;
         boolean emailChanged = false;
 
@@ -130,6 +150,7 @@ public class AuthService {
                 }
             });
             user.setUsername(request.username());
+            usernameChanged = true;
         }
 
         // Update email if provided and different
@@ -146,18 +167,30 @@ public class AuthService {
 
         // Change password if newPassword provided
         if (request.newPassword() != null && !request.newPassword().isBlank()) {
-            user.setPassword(passwordEncoder.encode(request.newPassword()));
+            user.setPassword(passwordHasher.encode(request.newPassword()));
             passwordChanged = true;
         }
 
+        // Username and email are token claims: a new version invalidates tokens issued before
+        boolean rotateTokens = usernameChanged || passwordChanged || emailChanged;
+        if (rotateTokens) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
+
         // Persist updates
         userRepository.save(user);
+        // Post lists show the author name
+        if (usernameChanged) {
+            postVersions.onEverythingChanged();
+        }
 
-        // Return new tokens if password or email changed
-        if (passwordChanged || emailChanged) {
-            String accessToken = jwtService.generateToken(user.getEmail());
-            var refreshToken = refreshTokenService.createForUser(user);
-            return new UpdateProfileResponse(toDto(user), accessToken, refreshToken.getToken());
+        // Return new tokens if a claim or the password changed
+        if (rotateTokens) {
+            tokenVersions.update(user.getId(), user.getTokenVersion());
+            jwtService.evictUser(user.getId());
+            String accessToken = jwtService.generateToken(user);
+            String refreshToken = refreshTokenService.createForUser(user);
+            return new UpdateProfileResponse(toDto(user), accessToken, refreshToken);
         }
 
         // No token rotation
@@ -1,71 +1,119 @@
 package com.orion.prototype.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.orion.prototype.dto.CommentDto;
+import com.orion.prototype.dto.CursorPageDto;
+import com.orion.prototype.dto.VersionStamp;
 import com.orion.prototype.entity.Comment;
 import com.orion.prototype.entity.Post;
-import com.orion.prototype.entity.User;
 import com.orion.prototype.repository.CommentRepository;
 import com.orion.prototype.repository.PostRepository;
 import com.orion.prototype.repository.UserRepository;
+import com.orion.prototype.security.AuthenticatedUser;
 
 @Service
 public class CommentService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final SearchService searchService;
+    private final PostActivityService postActivityService;
+    private final PostVersions postVersions;
 
     public CommentService(CommentRepository commentRepository,
             PostRepository postRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            SearchService searchService,
+            PostActivityService postActivityService,
+            PostVersions postVersions) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.searchService = searchService;
+        this.postActivityService = postActivityService;
+        this.postVersions = postVersions;
     }
 
     // ADD a comment to a post
     public CommentDto addComment(Long postId, String content, Authentication authentication) {
-        String email = (String) authentication.getPrincipal();
-        User author = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Auteur introuvable"));
+        AuthenticatedUser author = AuthenticatedUser.of(authentication);
 
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Article introuvable"));
 
         Comment comment = Comment.builder()
                 .content(content)
-                .author(author)
+                .author(userRepository.getReferenceById(author.id()))
                 .post(post)
                 .build();
 
         Comment saved = commentRepository.save(comment);
+        searchService.indexComment(postId, saved.getId(), content);
+        postActivityService.onCommentAdded(postId, saved.getCreatedAt());
+        postVersions.onPostChanged(post.getAuthor().getId(), post.getTopic().getId());
+
+        // Author name from the token, the user reference is never loaded
+        return new CommentDto(saved.getId(), saved.getContent(), saved.getCreatedAt(), author.username());
+    }
 
-        return toDto(saved);
+    // Version stamp of a comment thread (the post and its comments)
+    public VersionStamp getCommentsStamp(Long postId) {
+        return postRepository.findStampById(postId);
     }
 
-    // Get comments by post
+    // Get comments by post, oldest first; authors come from the same query
     public List<CommentDto> getCommentsByPost(Long postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Article introuvable"));
+        List<CommentDto> comments = commentRepository.findThread(postId, Limit.unlimited());
+        if (comments.isEmpty()) {
+            requirePost(postId);
+        }
+        return comments;
+    }
+
+    // Keyset page of a thread: cost depends on the page size, not on the thread length
+    public CursorPageDto<CommentDto> getCommentsPageByPost(Long postId, String cursor, int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Taille de page invalide: " + size);
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+
+        // Fetch one extra row to know whether a next page exists
+        PostCursor after = cursor == null || cursor.isBlank() ? null : PostCursor.decode(cursor, "createdAt",
+                Sort.Direction.ASC);
+        List<CommentDto> comments = after == null
+                ? commentRepository.findThread(postId, Limit.of(pageSize + 1))
+                : commentRepository.findThreadAfter(postId, (LocalDateTime) after.value(), after.id(),
+                        Limit.of(pageSize + 1));
+
+        // An empty page is the only case where the post may not exist
+        if (comments.isEmpty()) {
+            requirePost(postId);
+        }
 
-        return commentRepository.findByPost(post).stream()
-                .map(this::toDto)
-                .toList();
+        String nextCursor = null;
+        if (comments.size() > pageSize) {
+            comments = comments.subList(0, pageSize);
+            CommentDto last = comments.get(pageSize - 1);
+            nextCursor = PostCursor.of("createdAt", Sort.Direction.ASC, last.createdAt(), last.id()).encode();
+        }
+        return new CursorPageDto<>(comments, nextCursor);
     }
 
-    // Conversion -> DTO
-    private CommentDto toDto(Comment comment) {
-        return new CommentDto(
-                comment.getId(),
-                comment.getContent(),
-                comment.getCreatedAt(),
-                comment.getAuthor().getUsername());
+    private void requirePost(Long postId) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Article introuvable");
+        }
     }
 }
\ No newline at end of file
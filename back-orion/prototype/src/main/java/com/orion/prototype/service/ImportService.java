@@ -0,0 +1,179 @@
+package com.orion.prototype.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orion.prototype.dto.CommentImportDto;
+import com.orion.prototype.dto.PostImportDto;
+import com.orion.prototype.entity.Comment;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.TopicRepository;
+import com.orion.prototype.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Streams posts and their comments from NDJSON (one {@link PostImportDto}
+ * per line) into the database. Every app.import.batch-size posts form one
+ * transaction, and their inserts leave in JDBC batches of the same size:
+ * sequence ids let Hibernate group them. Authors are checked with one query
+ * per batch, topics against the catalog; a bad line stops the import and
+ * rolls back its batch only.
+ *
+ * The import runs in its own short-lived process, so it skips the in-memory
+ * structures (search index, timeline fan-out, topic statistics) that the
+ * server rebuilds at startup; it only marks the timelines for a rebuild.
+ */
+@Service
+public class ImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final TopicRepository topicRepository;
+    private final TopicCatalog topicCatalog;
+    private final TimelineService timelineService;
+    private final int batchSize;
+
+    public ImportService(ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+            UserRepository userRepository, TopicRepository topicRepository, TopicCatalog topicCatalog,
+            TimelineService timelineService, @Value("${app.import.batch-size:500}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.topicRepository = topicRepository;
+        this.topicCatalog = topicCatalog;
+        this.timelineService = timelineService;
+        this.batchSize = batchSize;
+    }
+
+    public Result importPosts(InputStream input) throws IOException {
+        long started = System.nanoTime();
+        long posts = 0;
+        long comments = 0;
+        List<PostImportDto> batch = new ArrayList<>(batchSize);
+        // Batches committed before a failure stay, so the timelines miss them either way
+        timelineService.markStale();
+        try (MappingIterator<PostImportDto> lines = objectMapper.readerFor(PostImportDto.class).readValues(input)) {
+            while (lines.hasNextValue()) {
+                batch.add(lines.nextValue());
+                if (batch.size() == batchSize) {
+                    comments += write(batch, posts + 1);
+                    posts += batch.size();
+                    batch.clear();
+                    log.info("Imported {} posts, {} comments", posts, comments);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            comments += write(batch, posts + 1);
+            posts += batch.size();
+        }
+        return new Result(posts, comments, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // One transaction per batch; returns the number of comments written
+    private long write(List<PostImportDto> batch, long firstLine) {
+        Long written = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            Set<Long> authors = userRepository.findExistingIds(authorIds(batch));
+            LocalDateTime now = LocalDateTime.now();
+            long comments = 0;
+
+            for (int i = 0; i < batch.size(); i++) {
+                PostImportDto row = batch.get(i);
+                long line = firstLine + i;
+                if (row.title() == null || row.title().isBlank() || row.content() == null) {
+                    throw new IllegalArgumentException("Ligne " + line + " : titre et contenu obligatoires");
+                }
+                if (row.topicId() == null || topicCatalog.find(row.topicId()).isEmpty()) {
+                    throw new IllegalArgumentException("Ligne " + line + " : topic introuvable " + row.topicId());
+                }
+
+                Post post = new Post();
+                post.setTitle(row.title());
+                post.setContent(row.content());
+                post.setCreatedAt(row.createdAt() != null ? row.createdAt() : now);
+                post.setTopic(topicRepository.getReferenceById(row.topicId()));
+                post.setAuthor(author(authors, row.authorId(), line));
+                // Activity counters are written with the row, not through the write-behind
+                post.setCommentCount(row.comments() == null ? 0 : row.comments().size());
+                post.setLastActivityAt(lastActivity(row, post.getCreatedAt()));
+                entityManager.persist(post);
+
+                if (row.comments() == null) {
+                    continue;
+                }
+                for (CommentImportDto commentRow : row.comments()) {
+                    if (commentRow.content() == null || commentRow.content().isBlank()) {
+                        throw new IllegalArgumentException("Ligne " + line + " : commentaire vide");
+                    }
+                    entityManager.persist(Comment.builder()
+                            .content(commentRow.content())
+                            .createdAt(commentRow.createdAt() != null ? commentRow.createdAt() : post.getCreatedAt())
+                            .author(author(authors, commentRow.authorId(), line))
+                            .post(post)
+                            .build());
+                    comments++;
+                }
+            }
+            return comments;
+        });
+        return written == null ? 0 : written;
+    }
+
+    private static LocalDateTime lastActivity(PostImportDto row, LocalDateTime postCreatedAt) {
+        LocalDateTime last = postCreatedAt;
+        if (row.comments() != null) {
+            for (CommentImportDto comment : row.comments()) {
+                if (comment.createdAt() != null && comment.createdAt().isAfter(last)) {
+                    last = comment.createdAt();
+                }
+            }
+        }
+        return last;
+    }
+
+    private User author(Set<Long> existing, Long authorId, long line) {
+        if (authorId == null || !existing.contains(authorId)) {
+            throw new IllegalArgumentException("Ligne " + line + " : auteur introuvable " + authorId);
+        }
+        return userRepository.getReferenceById(authorId);
+    }
+
+    private static Set<Long> authorIds(List<PostImportDto> batch) {
+        Set<Long> ids = new HashSet<>();
+        for (PostImportDto row : batch) {
+            ids.add(row.authorId());
+            if (row.comments() != null) {
+                row.comments().forEach(comment -> ids.add(comment.authorId()));
+            }
+        }
+        ids.remove(null);
+        return ids;
+    }
+
+    public record Result(long posts, long comments, long millis) {
+    }
+}
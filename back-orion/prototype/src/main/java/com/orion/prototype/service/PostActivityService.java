@@ -0,0 +1,150 @@
+package com.orion.prototype.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.orion.prototype.repository.PostRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind for posts.comment_count and posts.last_activity_at. New
+ * comments are accumulated in memory (a LongAdder and a latest date per
+ * post) and flushed every app.posts.activity.flush-ms as one JDBC batch with
+ * a single additive UPDATE per post, so a busy thread costs one row lock per
+ * interval instead of one per comment. Counters lag by at most one interval.
+ * A batch that fails is rolled back as a whole and its counts are put back
+ * for the next flush; pending increments are lost if the process dies, and
+ * the backfill only repairs posts it has never computed.
+ */
+@Service
+public class PostActivityService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostActivityService.class);
+
+    private static final String FLUSH_SQL = """
+            update posts set comment_count = comment_count + ?,
+                last_activity_at = case when last_activity_at is null or last_activity_at < ? then ? else last_activity_at end
+            where id = ?
+            """;
+
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    public PostActivityService(PostRepository postRepository, JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Compute the counters of posts written before the columns existed, or by bulk JDBC loads
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (postRepository.existsByLastActivityAtIsNull()) {
+            int updated = postRepository.backfillActivity();
+            log.info("Post activity computed for {} posts", updated);
+        }
+    }
+
+    // Count a new comment, once the surrounding transaction (if any) has committed
+    public void onCommentAdded(Long postId, LocalDateTime createdAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(postId, 1, createdAt);
+                }
+            });
+        } else {
+            add(postId, 1, createdAt);
+        }
+    }
+
+    // The row is gone with the post: drop what was still pending for it
+    public void onPostDeleted(Long postId) {
+        pending.remove(postId);
+    }
+
+    private void add(Long postId, long comments, LocalDateTime at) {
+        Pending entry = pending.computeIfAbsent(postId, id -> new Pending());
+        entry.add(comments, at);
+        // A flush removed the entry meanwhile and may have drained it before this
+        // add: move whatever it still holds to the live entry
+        while (pending.get(postId) != entry) {
+            long left = entry.comments.sumThenReset();
+            entry = pending.computeIfAbsent(postId, id -> new Pending());
+            entry.add(left, at);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.posts.activity.flush-ms:1000}",
+            fixedDelayString = "${app.posts.activity.flush-ms:1000}")
+    public void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, Pending> entry : pending.entrySet()) {
+            Pending drained = entry.getValue();
+            // Removed before it is read, so later adds go to a new entry
+            pending.remove(entry.getKey(), drained);
+            long comments = drained.comments.sumThenReset();
+            LocalDateTime last = drained.lastActivity.get();
+            if (comments == 0 && last == null) {
+                continue;
+            }
+            Timestamp at = last == null ? null : Timestamp.valueOf(last);
+            rows.add(new Object[] { comments, at, at, entry.getKey() });
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            // One transaction, so a failed batch leaves no post half-counted
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, rows));
+            log.debug("Post activity flushed for {} posts", rows.size());
+        } catch (RuntimeException ex) {
+            for (Object[] row : rows) {
+                Timestamp at = (Timestamp) row[1];
+                add((Long) row[3], (Long) row[0], at == null ? null : at.toLocalDateTime());
+            }
+            log.warn("Post activity flush failed for {} posts, kept for the next one", rows.size(), ex);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static final class Pending {
+        private final LongAdder comments = new LongAdder();
+        private final AtomicReference<LocalDateTime> lastActivity = new AtomicReference<>();
+
+        void add(long count, LocalDateTime at) {
+            comments.add(count);
+            if (at == null) {
+                return;
+            }
+            lastActivity.accumulateAndGet(at, (current, candidate) ->
+                    current == null || candidate.isAfter(current) ? candidate : current);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.orion.prototype.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Opaque keyset cursor: the sort key of the last item returned plus its id as
+ * tie-breaker, and the sort direction it was produced for. Encoded as
+ * URL-safe base64 so clients treat it as a token.
+ */
+public record PostCursor(String field, Sort.Direction direction, Object value, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static PostCursor of(String field, Sort.Direction direction, Object value, Long id) {
+        return new PostCursor(field, direction, value, id);
+    }
+
+    public String encode() {
+        String raw = field + SEPARATOR + direction + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a token; the cursor must have been produced for the same sort field and direction
+    public static PostCursor decode(String token, String expectedField, Sort.Direction expectedDirection) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || !parts[0].equals(expectedField)
+                    || !parts[1].equals(expectedDirection.name())) {
+                throw invalid();
+            }
+            Long id = Long.valueOf(parts[2]);
+            Object value = "createdAt".equals(expectedField) || "activity".equals(expectedField)
+                    ? LocalDateTime.parse(parts[3])
+                    : parts[3];
+            return new PostCursor(parts[0], expectedDirection, value, id);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw invalid();
+        }
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur invalide");
+    }
+}
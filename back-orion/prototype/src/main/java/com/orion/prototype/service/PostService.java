@@ -1,81 +1,127 @@
 package com.orion.prototype.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.orion.prototype.dto.CollectionStamp;
 import com.orion.prototype.dto.CommentDto;
+import com.orion.prototype.dto.CursorPageDto;
 import com.orion.prototype.dto.PostDto;
+import com.orion.prototype.dto.PostSummaryDto;
+import com.orion.prototype.dto.TopicDto;
+import com.orion.prototype.dto.VersionStamp;
+import com.orion.prototype.entity.Comment;
 import com.orion.prototype.entity.Post;
 import com.orion.prototype.entity.Topic;
-import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.CommentRepository;
 import com.orion.prototype.repository.PostRepository;
 import com.orion.prototype.repository.TopicRepository;
 import com.orion.prototype.repository.UserRepository;
+import com.orion.prototype.security.AuthenticatedUser;
 
 @Service
 public class PostService {
 
         private final PostRepository postRepository;
+        private final CommentRepository commentRepository;
         private final TopicRepository topicRepository;
         private final UserRepository userRepository;
+        private final TimelineService timelineService;
+        private final SearchService searchService;
+        private final TopicCatalog topicCatalog;
+        private final PostActivityService postActivityService;
+        private final SubscriptionCache subscriptionCache;
+        private final TopicStats topicStats;
+        private final PostVersions postVersions;
+
+        private static final int MAX_PAGE_SIZE = 100;
 
         private static final Map<String, String> SORT_FIELDS = Map.of(
                         "createdAt", "createdAt",
                         "title", "title",
-                        "author", "author.username");
+                        "author", "author.username",
+                        // Moved by every flush of the activity write-behind: cursors over it
+                        // may skip or repeat posts commented between two pages
+                        "activity", "lastActivityAt");
 
         private static final Map<String, Sort.Direction> DEFAULT_SORT_DIRECTIONS = Map.of(
                         "createdAt", Sort.Direction.DESC,
                         "title", Sort.Direction.ASC,
-                        "author", Sort.Direction.ASC);
+                        "author", Sort.Direction.ASC,
+                        "activity", Sort.Direction.DESC);
 
         public PostService(PostRepository postRepository,
+                        CommentRepository commentRepository,
                         TopicRepository topicRepository,
-                        UserRepository userRepository) {
+                        UserRepository userRepository,
+                        TimelineService timelineService,
+                        SearchService searchService,
+                        TopicCatalog topicCatalog,
+                        PostActivityService postActivityService,
+                        SubscriptionCache subscriptionCache,
+                        TopicStats topicStats,
+                        PostVersions postVersions) {
                 this.postRepository = postRepository;
+                this.commentRepository = commentRepository;
                 this.topicRepository = topicRepository;
                 this.userRepository = userRepository;
+                this.timelineService = timelineService;
+                this.searchService = searchService;
+                this.topicCatalog = topicCatalog;
+                this.postActivityService = postActivityService;
+                this.subscriptionCache = subscriptionCache;
+                this.topicStats = topicStats;
+                this.postVersions = postVersions;
         }
 
         // Create a new post
-        public PostDto createPost(String title, String content, Long topicId, String authorEmail) {
-                Topic topic = topicRepository.findById(topicId)
+        public PostDto createPost(String title, String content, Long topicId, AuthenticatedUser author) {
+                // Validated against the topic catalog, no database round trip
+                TopicDto topic = topicCatalog.find(topicId)
                                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                                                 "Topic introuvable"));
 
-                User author = userRepository.findByEmail(authorEmail)
-                                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                                                "Auteur introuvable"));
-
                 Post post = new Post();
                 post.setTitle(title);
                 post.setContent(content);
                 post.setCreatedAt(LocalDateTime.now());
-                post.setTopic(topic);
-                post.setAuthor(author);
+                post.setTopic(topicRepository.getReferenceById(topicId));
+                post.setAuthor(userRepository.getReferenceById(author.id()));
 
                 Post saved = postRepository.save(post);
-                return toDto(saved);
+                timelineService.onPostCreated(saved.getId());
+                searchService.indexPost(saved);
+                topicStats.onPostCreated(topicId, saved.getCreatedAt());
+                postVersions.onPostChanged(author.id(), topicId);
+                return new PostDto(
+                                saved.getId(),
+                                saved.getTitle(),
+                                saved.getContent(),
+                                saved.getCreatedAt(),
+                                topic.id(),
+                                topic.name(),
+                                author.username(),
+                                List.of());
         }
 
         @Transactional
-        public PostDto updatePost(Long postId, String title, String content, Long topicId, String authorEmail) {
+        public PostDto updatePost(Long postId, String title, String content, Long topicId, Long userId) {
                 Post post = postRepository.findById(postId)
                                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                                                 "Article introuvable"));
 
-                User currentUser = userRepository.findByEmail(authorEmail)
-                                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED,
-                                                "Utilisateur introuvable"));
-
-                if (!post.getAuthor().getId().equals(currentUser.getId())) {
+                if (!post.getAuthor().getId().equals(userId)) {
                         throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                                         "Vous ne pouvez pas modifier cet article");
                 }
@@ -84,69 +130,241 @@ public class PostService {
                                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                                                 "Topic introuvable"));
 
+                Long previousTopicId = post.getTopic().getId();
+                boolean topicChanged = !previousTopicId.equals(topic.getId());
+
                 post.setTitle(title);
                 post.setContent(content);
                 post.setTopic(topic);
 
                 postRepository.save(post);
+                if (topicChanged) {
+                        timelineService.onPostMoved(post.getId());
+                        topicStats.onPostMoved(previousTopicId, topic.getId(), post.getCreatedAt());
+                }
+                searchService.indexPost(post);
+                postVersions.onPostChanged(userId, previousTopicId, topic.getId());
 
-                return toDto(post);
+                return toDtos(List.of(post)).get(0);
         }
 
         @Transactional
-        public void deletePost(Long postId, String authorEmail) {
+        public void deletePost(Long postId, Long userId) {
                 Post post = postRepository.findById(postId)
                                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                                                 "Article introuvable"));
 
-                User currentUser = userRepository.findByEmail(authorEmail)
-                                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED,
-                                                "Utilisateur introuvable"));
-
-                if (!post.getAuthor().getId().equals(currentUser.getId())) {
+                if (!post.getAuthor().getId().equals(userId)) {
                         throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                                         "Vous ne pouvez pas supprimer cet article");
                 }
 
+                timelineService.onPostDeleted(post.getId());
+                searchService.removePost(post.getId());
+                postActivityService.onPostDeleted(post.getId());
+                topicStats.onPostDeleted(post.getTopic().getId());
+                postVersions.onPostChanged(userId, post.getTopic().getId());
                 postRepository.delete(post);
         }
 
         // Get all posts (as DTOs)
         public List<PostDto> getAllPosts() {
-                return postRepository.findAllByOrderByCreatedAtDesc()
-                                .stream()
-                                .map(this::toDto)
-                                .toList();
+                return toDtos(postRepository.findAllByOrderByCreatedAtDesc());
         }
 
         // Get posts belonging to a specific author
         public List<PostDto> getPostsByAuthorId(Long authorId, String sortField, String order) {
                 Sort sort = buildSort(sortField, order);
 
-                return postRepository.findAllByAuthorId(authorId, sort)
-                                .stream()
-                                .map(this::toDto)
-                                .toList();
+                return toDtos(postRepository.findAllByAuthorId(authorId, sort));
         }
 
         // Get posts belonging to a specific topic
         public List<PostDto> getPostsByTopicId(Long topicId, String sortField, String order) {
                 Sort sort = buildSort(sortField, order);
 
-                return postRepository.findAllByTopicId(topicId, sort)
-                                .stream()
-                                .map(this::toDto)
-                                .toList();
+                return toDtos(postRepository.findAllByTopicId(topicId, sort));
+        }
+
+        // Get the feed of the current user: posts of subscribed topics, newest first
+        @Transactional(readOnly = true)
+        public CursorPageDto<PostDto> getFeed(Long userId, String cursor, int size) {
+                int pageSize = checkPageSize(size);
+
+                // Fetch one extra row to know whether a next page exists
+                PostCursor after = decodeCursor(cursor, "createdAt", Sort.Direction.DESC);
+                LocalDateTime afterCreatedAt = after == null ? null : (LocalDateTime) after.value();
+                Long afterId = after == null ? null : after.id();
+                List<Post> posts;
+                if (timelineService.isEnabled()) {
+                        posts = new ArrayList<>(timelineService.findPosts(userId, afterCreatedAt, afterId,
+                                        pageSize + 1));
+                        // Timelines only keep the newest entries of each user: older pages
+                        // continue from the posts table after the last timeline row
+                        if (posts.size() <= pageSize) {
+                                Post last = posts.isEmpty() ? null : posts.get(posts.size() - 1);
+                                posts.addAll(findFeedPosts(userId,
+                                                last == null ? afterCreatedAt : last.getCreatedAt(),
+                                                last == null ? afterId : last.getId(),
+                                                pageSize + 1 - posts.size()));
+                        }
+                } else {
+                        posts = findFeedPosts(userId, afterCreatedAt, afterId, pageSize + 1);
+                }
+
+                return toPage(posts, pageSize,
+                                post -> PostCursor.of("createdAt", Sort.Direction.DESC, post.getCreatedAt(), post.getId()),
+                                this::toDtos);
+        }
+
+        // Feed posts straight from the posts table, topic ids from the subscription cache
+        private List<Post> findFeedPosts(Long userId, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+                SubscribedTopics topics = subscriptionCache.get(userId);
+                if (topics.isEmpty()) {
+                        return List.of();
+                }
+                if (afterId == null) {
+                        return postRepository.findFeed(topics.topicIdList(), Limit.of(limit));
+                }
+                return postRepository.findFeedAfter(topics.topicIdList(), afterCreatedAt, afterId, Limit.of(limit));
+        }
+
+        // Keyset pages of the post lists, same sort/order semantics as the list endpoints
+        @Transactional(readOnly = true)
+        public CursorPageDto<PostDto> getAllPostsPage(String sortField, String order, String cursor, int size) {
+                return getPostsPage(null, null, sortField, order, cursor, size);
+        }
+
+        @Transactional(readOnly = true)
+        public CursorPageDto<PostDto> getPostsPageByAuthorId(Long authorId, String sortField, String order,
+                        String cursor, int size) {
+                return getPostsPage(authorId, null, sortField, order, cursor, size);
+        }
+
+        @Transactional(readOnly = true)
+        public CursorPageDto<PostDto> getPostsPageByTopicId(Long topicId, String sortField, String order,
+                        String cursor, int size) {
+                return getPostsPage(null, topicId, sortField, order, cursor, size);
+        }
+
+        // Summary pages: excerpt and comment count instead of full content and comments
+        public CursorPageDto<PostSummaryDto> getAllPostSummaries(String sortField, String order, String cursor,
+                        int size) {
+                return getSummaryPage(null, null, sortField, order, cursor, size);
+        }
+
+        public CursorPageDto<PostSummaryDto> getPostSummariesByAuthorId(Long authorId, String sortField,
+                        String order, String cursor, int size) {
+                return getSummaryPage(authorId, null, sortField, order, cursor, size);
+        }
+
+        public CursorPageDto<PostSummaryDto> getPostSummariesByTopicId(Long topicId, String sortField,
+                        String order, String cursor, int size) {
+                return getSummaryPage(null, topicId, sortField, order, cursor, size);
+        }
+
+        private CursorPageDto<PostDto> getPostsPage(Long authorId, Long topicId, String sortField, String order,
+                        String cursor, int size) {
+                int pageSize = checkPageSize(size);
+                Sort.Order sortOrder = buildSort(sortField, order).iterator().next();
+                PostCursor after = decodeCursor(cursor, sortField, sortOrder.getDirection());
+
+                List<Post> posts = postRepository.findPage(authorId, topicId, sortOrder,
+                                after == null ? null : after.value(),
+                                after == null ? null : after.id(),
+                                pageSize + 1);
+
+                return toPage(posts, pageSize,
+                                post -> PostCursor.of(sortField, sortOrder.getDirection(), sortValue(post, sortField),
+                                                post.getId()),
+                                this::toDtos);
+        }
+
+        private CursorPageDto<PostSummaryDto> getSummaryPage(Long authorId, Long topicId, String sortField,
+                        String order, String cursor, int size) {
+                int pageSize = checkPageSize(size);
+                Sort.Order sortOrder = buildSort(sortField, order).iterator().next();
+                PostCursor after = decodeCursor(cursor, sortField, sortOrder.getDirection());
+
+                List<PostSummaryDto> summaries = postRepository.findSummaryPage(authorId, topicId, sortOrder,
+                                after == null ? null : after.value(),
+                                after == null ? null : after.id(),
+                                pageSize + 1);
+
+                return toPage(summaries, pageSize,
+                                summary -> PostCursor.of(sortField, sortOrder.getDirection(),
+                                                sortValue(summary, sortField), summary.id()),
+                                Function.identity());
+        }
+
+        private PostCursor decodeCursor(String cursor, String sortField, Sort.Direction direction) {
+                return cursor == null || cursor.isBlank() ? null : PostCursor.decode(cursor, sortField, direction);
+        }
+
+        // Trim the extra row fetched to detect a next page and build its cursor
+        private <T, R> CursorPageDto<R> toPage(List<T> rows, int pageSize, Function<T, PostCursor> cursorOf,
+                        Function<List<T>, List<R>> mapper) {
+                String nextCursor = null;
+                if (rows.size() > pageSize) {
+                        rows = rows.subList(0, pageSize);
+                        nextCursor = cursorOf.apply(rows.get(pageSize - 1)).encode();
+                }
+
+                return new CursorPageDto<>(mapper.apply(rows), nextCursor);
+        }
+
+        private Object sortValue(Post post, String sortField) {
+                return switch (sortField) {
+                        case "title" -> post.getTitle();
+                        case "author" -> post.getAuthor().getUsername();
+                        case "activity" -> post.getLastActivityAt();
+                        default -> post.getCreatedAt();
+                };
+        }
+
+        private Object sortValue(PostSummaryDto summary, String sortField) {
+                return switch (sortField) {
+                        case "title" -> summary.title();
+                        case "author" -> summary.authorUsername();
+                        case "activity" -> summary.lastActivityAt();
+                        default -> summary.createdAt();
+                };
+        }
+
+        // Version stamps of the read endpoints, checked before loading any post;
+        // collections are versioned in memory, a single post reads its own rows
+        public CollectionStamp getAllPostsStamp() {
+                return postVersions.all();
+        }
+
+        public CollectionStamp getPostsStampByAuthorId(Long authorId) {
+                return postVersions.byAuthor(authorId);
+        }
+
+        public CollectionStamp getPostsStampByTopicId(Long topicId) {
+                return postVersions.byTopic(topicId);
+        }
+
+        public VersionStamp getPostStamp(Long id) {
+                return postRepository.findStampById(id);
         }
 
         // Get a post by id
         public PostDto getPostById(Long id) {
-                Post post = postRepository.findById(id)
+                Post post = postRepository.findDetailedById(id)
                                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                                                 "Article introuvable"));
                 return toDto(post);
         }
 
+        private int checkPageSize(int size) {
+                if (size < 1) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                        "Taille de page invalide: " + size);
+                }
+                return Math.min(size, MAX_PAGE_SIZE);
+        }
+
         // Conversion Post -> PostDto
         private Sort buildSort(String sortField, String order) {
                 String property = SORT_FIELDS.get(sortField);
@@ -177,7 +395,31 @@ public class PostService {
                 return Sort.by(sortOrder);
         }
 
+        // Conversion of a list: comments of all posts are loaded in a single query
+        private List<PostDto> toDtos(List<Post> posts) {
+                if (posts.isEmpty()) {
+                        return List.of();
+                }
+
+                List<Long> postIds = posts.stream().map(Post::getId).toList();
+                Map<Long, List<CommentDto>> commentsByPost = commentRepository
+                                .findAllByPostIdInOrderByCreatedAtAsc(postIds)
+                                .stream()
+                                .collect(Collectors.groupingBy(c -> c.getPost().getId(),
+                                                Collectors.mapping(this::toCommentDto, Collectors.toList())));
+
+                return posts.stream()
+                                .map(post -> toDto(post, commentsByPost.getOrDefault(post.getId(), List.of())))
+                                .toList();
+        }
+
         private PostDto toDto(Post post) {
+                return toDto(post, post.getComments().stream()
+                                .map(this::toCommentDto)
+                                .toList());
+        }
+
+        private PostDto toDto(Post post, List<CommentDto> comments) {
                 return new PostDto(
                                 post.getId(),
                                 post.getTitle(),
@@ -186,12 +428,14 @@ public class PostService {
                                 post.getTopic().getId(),
                                 post.getTopic().getName(),
                                 post.getAuthor().getUsername(),
-                                post.getComments().stream()
-                                                .map(c -> new CommentDto(
-                                                                c.getId(),
-                                                                c.getContent(),
-                                                                c.getCreatedAt(),
-                                                                c.getAuthor().getUsername()))
-                                                .toList());
+                                comments);
+        }
+
+        private CommentDto toCommentDto(Comment comment) {
+                return new CommentDto(
+                                comment.getId(),
+                                comment.getContent(),
+                                comment.getCreatedAt(),
+                                comment.getAuthor().getUsername());
         }
 }
@@ -0,0 +1,97 @@
+package com.orion.prototype.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.orion.prototype.dto.CollectionStamp;
+
+/**
+ * Versions of the post collections (all posts, per author, per topic) kept in
+ * memory so conditional GETs on lists never aggregate the posts and comments
+ * tables. Each committed change takes the next number of a single sequence
+ * and records it on the collections it touches.
+ *
+ * Numbers restart with the application, so every tag also carries an epoch
+ * drawn at startup: a tag from a previous run or another instance never
+ * matches. Like the search index and topic statistics, this assumes writes go
+ * through the application; rows written by other means are only seen after a
+ * restart.
+ */
+@Component
+public class PostVersions {
+
+    // Sequence number and time of a collection's last change
+    private record Version(long number, long modifiedAt) {
+
+        Version latest(Version other) {
+            return other.number > number ? other : this;
+        }
+    }
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Version startup = new Version(0, System.currentTimeMillis());
+    // Changes that touch every collection, such as a renamed author
+    private final AtomicReference<Version> everything = new AtomicReference<>(startup);
+    private final AtomicReference<Version> all = new AtomicReference<>(startup);
+    private final Map<Long, Version> byAuthor = new ConcurrentHashMap<>();
+    private final Map<Long, Version> byTopic = new ConcurrentHashMap<>();
+
+    public CollectionStamp all() {
+        return stamp(all.get());
+    }
+
+    public CollectionStamp byAuthor(Long authorId) {
+        return stamp(byAuthor.getOrDefault(authorId, startup));
+    }
+
+    public CollectionStamp byTopic(Long topicId) {
+        return stamp(byTopic.getOrDefault(topicId, startup));
+    }
+
+    // A post or one of its comments was created, edited, moved or deleted
+    public void onPostChanged(Long authorId, Long... topicIds) {
+        afterCommit(() -> {
+            Version version = next();
+            all.accumulateAndGet(version, Version::latest);
+            byAuthor.merge(authorId, version, Version::latest);
+            for (Long topicId : topicIds) {
+                byTopic.merge(topicId, version, Version::latest);
+            }
+        });
+    }
+
+    public void onEverythingChanged() {
+        afterCommit(() -> everything.accumulateAndGet(next(), Version::latest));
+    }
+
+    private Version next() {
+        return new Version(sequence.incrementAndGet(), System.currentTimeMillis());
+    }
+
+    private CollectionStamp stamp(Version version) {
+        Version latest = version.latest(everything.get());
+        return new CollectionStamp(epoch, latest.number(), latest.modifiedAt());
+    }
+
+    // Bumped once the change is visible, so a tag is never paired with older content
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package com.orion.prototype.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -14,50 +26,100 @@ import com.orion.prototype.entity.RefreshToken;
 import com.orion.prototype.entity.User;
 import com.orion.prototype.repository.RefreshTokenRepository;
 
+/**
+ * Refresh tokens are random values handed to the client once; only their
+ * SHA-256 is stored, and expired rows are purged in small batches. Rows
+ * stored before hashing hold the raw token, which no lookup by hash can
+ * match: they are deleted at startup and their users log in again.
+ */
 @Service
 public class RefreshTokenService {
 
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private final RefreshTokenRepository refreshTokenRepository;
     private final Duration refreshTokenDuration;
+    private final int purgeBatchSize;
 
     public RefreshTokenService(
             RefreshTokenRepository refreshTokenRepository,
-            @Value("${app.security.refresh-token.expiration-hours:168}") long refreshTokenExpirationHours) {
+            @Value("${app.security.refresh-token.expiration-hours:168}") long refreshTokenExpirationHours,
+            @Value("${app.security.refresh-token.purge-batch-size:1000}") int purgeBatchSize) {
         this.refreshTokenRepository = refreshTokenRepository;
         this.refreshTokenDuration = Duration.ofHours(refreshTokenExpirationHours);
+        this.purgeBatchSize = purgeBatchSize;
     }
 
+    // Replaces the user's previous tokens and returns the raw value for the client
     @Transactional
-    public RefreshToken createForUser(User user) {
+    public String createForUser(User user) {
         refreshTokenRepository.deleteAllByUser(user);
 
-        RefreshToken refreshToken = RefreshToken.builder()
-                .token(UUID.randomUUID().toString())
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
                 .expiryDate(Instant.now().plus(refreshTokenDuration))
                 .user(user)
-                .build();
-
-        return refreshTokenRepository.save(refreshToken);
+                .build());
+        return token;
     }
 
+    // The returned token has its user loaded
     public RefreshToken validate(String tokenValue) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(tokenValue)
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(tokenValue))
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.UNAUTHORIZED, "Refresh token invalide"));
 
         if (refreshToken.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(refreshToken);
+            refreshTokenRepository.deleteAllByIdIn(List.of(refreshToken.getId()));
             throw new ResponseStatusException(
                     HttpStatus.UNAUTHORIZED, "Refresh token expiré");
         }
 
-        // Initialize user before leaving transactional context
-        refreshToken.getUser().getId();
-
         return refreshToken;
     }
 
     public void deleteForUser(User user) {
         refreshTokenRepository.deleteAllByUser(user);
     }
+
+    // Each batch is its own short transaction, so the purge never holds locks for long
+    @Scheduled(initialDelayString = "${app.security.refresh-token.purge-ms:3600000}",
+            fixedDelayString = "${app.security.refresh-token.purge-ms:3600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = refreshTokenRepository.findExpiredIds(now, Limit.of(purgeBatchSize));
+            if (!ids.isEmpty()) {
+                purged += refreshTokenRepository.deleteAllByIdIn(ids);
+            }
+        } while (ids.size() == purgeBatchSize);
+
+        if (purged > 0) {
+            log.info("Expired refresh tokens purged: {}", purged);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void deleteUnhashed() {
+        int deleted = refreshTokenRepository.deleteUnhashed();
+        if (deleted > 0) {
+            log.info("Refresh tokens stored before hashing deleted: {}", deleted);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
 }
@@ -0,0 +1,415 @@
+package com.orion.prototype.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over posts and their comments, ranked with BM25.
+ *
+ * A post is indexed as one document (title counted twice, then content) and
+ * each comment as an extra document attached to the same post id; indexing a
+ * comment twice keeps a single document. Postings
+ * are primitive arrays of internal document numbers in ascending order, so a
+ * query merges them without boxing. Replaced or removed documents are
+ * tombstoned and the postings compacted once tombstones outnumber live docs.
+ */
+public class SearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Matches found only in a comment rank below matches in the post itself
+    private static final float COMMENT_WEIGHT = 0.5f;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    public record Hit(long postId, float score) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Term dictionary and posting lists, indexed by term id
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private int[][] postingDocs = new int[INITIAL_CAPACITY][];
+    private byte[][] postingFreqs = new byte[INITIAL_CAPACITY][];
+    private int[] postingSizes = new int[INITIAL_CAPACITY];
+    private int termCount;
+
+    // Documents, indexed by document number
+    private long[] docPostIds = new long[INITIAL_CAPACITY];
+    private long[] docTopicIds = new long[INITIAL_CAPACITY];
+    private int[] docLengths = new int[INITIAL_CAPACITY];
+    // Comment id of comment documents, 0 for post documents
+    private long[] docCommentIds = new long[INITIAL_CAPACITY];
+    // Previous document of the same post, -1 at the end of the chain
+    private int[] docPreviousOfPost = new int[INITIAL_CAPACITY];
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int liveDocs;
+    private long liveLength;
+
+    // Post id -> most recent document of that post
+    private final Map<Long, Integer> lastDocOfPost = new HashMap<>();
+
+    // Index or replace the text of a post, keeping its comments
+    public void indexPost(long postId, long topicId, String title, String content) {
+        List<String> tokens = tokenize(title + " " + title + " " + content);
+        lock.writeLock().lock();
+        try {
+            Integer last = lastDocOfPost.get(postId);
+            int previous = -1;
+            if (last != null) {
+                // Keep comment documents in the chain, drop the old post document
+                for (int doc = last; doc >= 0; doc = docPreviousOfPost[doc]) {
+                    if (docCommentIds[doc] == 0) {
+                        delete(doc);
+                    }
+                }
+                previous = last;
+            }
+            addDocument(postId, topicId, 0, termIdsOf(tokens, true), previous);
+            moveComments(postId, topicId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Attach a comment to an indexed post; ignored if the post is unknown or the comment already indexed
+    public void indexComment(long postId, long commentId, String content) {
+        List<String> tokens = tokenize(content);
+        lock.writeLock().lock();
+        try {
+            Integer last = lastDocOfPost.get(postId);
+            if (last == null) {
+                return;
+            }
+            for (int doc = last; doc >= 0; doc = docPreviousOfPost[doc]) {
+                if (docCommentIds[doc] == commentId && !deleted.get(doc)) {
+                    return;
+                }
+            }
+            addDocument(postId, docTopicIds[last], commentId, termIdsOf(tokens, true), last);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removePost(long postId) {
+        lock.writeLock().lock();
+        try {
+            Integer last = lastDocOfPost.remove(postId);
+            if (last == null) {
+                return;
+            }
+            for (int doc = last; doc >= 0; doc = docPreviousOfPost[doc]) {
+                delete(doc);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return lastDocOfPost.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best posts for the query (any term may match), optionally restricted to
+     * a topic, ordered by descending score. A post scores as its best document.
+     */
+    public List<Hit> search(String query, Long topicId, int limit) {
+        List<String> tokens = tokenize(query).stream().distinct().toList();
+        lock.readLock().lock();
+        try {
+            int[] terms = termIdsOf(tokens, false);
+            if (terms.length == 0 || liveDocs == 0) {
+                return List.of();
+            }
+
+            float avgLength = (float) liveLength / liveDocs;
+            int[] positions = new int[terms.length];
+            float[] idf = new float[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                // Postings still hold tombstones until the next compaction
+                int df = Math.min(postingSizes[terms[i]], liveDocs);
+                idf[i] = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+            }
+
+            // Min-heap of the best posts seen so far
+            long[] heapPosts = new long[limit];
+            float[] heapScores = new float[limit];
+            int heapSize = 0;
+
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (int i = 0; i < terms.length; i++) {
+                    if (positions[i] < postingSizes[terms[i]]) {
+                        doc = Math.min(doc, postingDocs[terms[i]][positions[i]]);
+                    }
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                // Filtered documents only advance the cursors
+                boolean accepted = !deleted.get(doc) && (topicId == null || docTopicIds[doc] == topicId);
+                float score = 0;
+                float lengthNorm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                for (int i = 0; i < terms.length; i++) {
+                    int term = terms[i];
+                    if (positions[i] < postingSizes[term] && postingDocs[term][positions[i]] == doc) {
+                        if (accepted) {
+                            int freq = postingFreqs[term][positions[i]] & 0xFF;
+                            score += idf[i] * freq * (K1 + 1) / (freq + lengthNorm);
+                        }
+                        positions[i]++;
+                    }
+                }
+
+                if (!accepted) {
+                    continue;
+                }
+                if (docCommentIds[doc] != 0) {
+                    score *= COMMENT_WEIGHT;
+                }
+                heapSize = offer(heapPosts, heapScores, heapSize, docPostIds[doc], score);
+            }
+
+            List<Hit> hits = new ArrayList<>(heapSize);
+            for (int i = 0; i < heapSize; i++) {
+                hits.add(new Hit(heapPosts[i], heapScores[i]));
+            }
+            hits.sort((a, b) -> Float.compare(b.score(), a.score()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Heap insertion keeping one entry per post, with its best score
+    private static int offer(long[] posts, float[] scores, int size, long postId, float score) {
+        for (int i = 0; i < size; i++) {
+            if (posts[i] == postId) {
+                if (score > scores[i]) {
+                    scores[i] = score;
+                    siftDown(posts, scores, size, i);
+                }
+                return size;
+            }
+        }
+        if (size < posts.length) {
+            posts[size] = postId;
+            scores[size] = score;
+            siftUp(posts, scores, size);
+            return size + 1;
+        }
+        if (size > 0 && score > scores[0]) {
+            posts[0] = postId;
+            scores[0] = score;
+            siftDown(posts, scores, size, 0);
+        }
+        return size;
+    }
+
+    private static void siftUp(long[] posts, float[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (scores[parent] <= scores[i]) {
+                return;
+            }
+            swap(posts, scores, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] posts, float[] scores, int size, int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(posts, scores, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(long[] posts, float[] scores, int i, int j) {
+        long post = posts[i];
+        posts[i] = posts[j];
+        posts[j] = post;
+        float score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    // Term ids of the tokens; unknown terms are created when indexing, skipped when querying.
+    // Callers hold the write lock when create is true, the read lock otherwise.
+    private int[] termIdsOf(List<String> tokens, boolean create) {
+        int[] ids = new int[tokens.size()];
+        int count = 0;
+        for (String token : tokens) {
+            Integer id = create ? termIds.computeIfAbsent(token, t -> newTerm()) : termIds.get(token);
+            if (id != null) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private int newTerm() {
+        if (termCount == postingSizes.length) {
+            int capacity = termCount * 3 / 2;
+            postingDocs = Arrays.copyOf(postingDocs, capacity);
+            postingFreqs = Arrays.copyOf(postingFreqs, capacity);
+            postingSizes = Arrays.copyOf(postingSizes, capacity);
+        }
+        postingDocs[termCount] = new int[4];
+        postingFreqs[termCount] = new byte[4];
+        return termCount++;
+    }
+
+    private void addDocument(long postId, long topicId, long commentId, int[] tokens, int previous) {
+        if (docCount == docPostIds.length) {
+            int capacity = docCount * 3 / 2;
+            docPostIds = Arrays.copyOf(docPostIds, capacity);
+            docTopicIds = Arrays.copyOf(docTopicIds, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docCommentIds = Arrays.copyOf(docCommentIds, capacity);
+            docPreviousOfPost = Arrays.copyOf(docPreviousOfPost, capacity);
+        }
+        int doc = docCount++;
+        docPostIds[doc] = postId;
+        docTopicIds[doc] = topicId;
+        docLengths[doc] = tokens.length;
+        docCommentIds[doc] = commentId;
+        docPreviousOfPost[doc] = previous;
+        lastDocOfPost.put(postId, doc);
+        liveDocs++;
+        liveLength += tokens.length;
+
+        // Sorted term ids -> one posting per distinct term with its frequency
+        int[] sorted = tokens.clone();
+        Arrays.sort(sorted);
+        int i = 0;
+        while (i < sorted.length) {
+            int term = sorted[i];
+            int freq = 0;
+            while (i < sorted.length && sorted[i] == term) {
+                freq++;
+                i++;
+            }
+            appendPosting(term, doc, Math.min(freq, 255));
+        }
+    }
+
+    private void appendPosting(int term, int doc, int freq) {
+        int size = postingSizes[term];
+        if (size == postingDocs[term].length) {
+            int capacity = size * 3 / 2 + 1;
+            postingDocs[term] = Arrays.copyOf(postingDocs[term], capacity);
+            postingFreqs[term] = Arrays.copyOf(postingFreqs[term], capacity);
+        }
+        postingDocs[term][size] = doc;
+        postingFreqs[term][size] = (byte) freq;
+        postingSizes[term] = size + 1;
+    }
+
+    private void delete(int doc) {
+        if (!deleted.get(doc)) {
+            deleted.set(doc);
+            liveDocs--;
+            liveLength -= docLengths[doc];
+        }
+    }
+
+    // Comments follow their post when it changes topic
+    private void moveComments(long postId, long topicId) {
+        for (int doc = lastDocOfPost.get(postId); doc >= 0; doc = docPreviousOfPost[doc]) {
+            docTopicIds[doc] = topicId;
+        }
+    }
+
+    // Renumber live documents and rewrite the postings without tombstones
+    private void compactIfNeeded() {
+        int deletedDocs = docCount - liveDocs;
+        if (deletedDocs < INITIAL_CAPACITY || deletedDocs < liveDocs) {
+            return;
+        }
+        int[] newNumber = new int[docCount];
+        // Chains are followed through tombstones in the old numbering, which the copy below overwrites
+        int[] oldPrevious = Arrays.copyOf(docPreviousOfPost, docCount);
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            newNumber[doc] = deleted.get(doc) ? -1 : next++;
+        }
+        for (int term = 0; term < termCount; term++) {
+            int size = 0;
+            for (int i = 0; i < postingSizes[term]; i++) {
+                int doc = newNumber[postingDocs[term][i]];
+                if (doc >= 0) {
+                    postingDocs[term][size] = doc;
+                    postingFreqs[term][size] = postingFreqs[term][i];
+                    size++;
+                }
+            }
+            postingSizes[term] = size;
+        }
+        for (int doc = 0; doc < docCount; doc++) {
+            int target = newNumber[doc];
+            if (target >= 0) {
+                docPostIds[target] = docPostIds[doc];
+                docTopicIds[target] = docTopicIds[doc];
+                docLengths[target] = docLengths[doc];
+                docCommentIds[target] = docCommentIds[doc];
+                int previous = oldPrevious[doc];
+                while (previous >= 0 && newNumber[previous] < 0) {
+                    previous = oldPrevious[previous];
+                }
+                docPreviousOfPost[target] = previous >= 0 ? newNumber[previous] : -1;
+            }
+        }
+        lastDocOfPost.replaceAll((postId, doc) -> newNumber[doc]);
+        deleted.clear();
+        docCount = next;
+    }
+}
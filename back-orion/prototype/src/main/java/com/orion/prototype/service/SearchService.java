@@ -0,0 +1,176 @@
+package com.orion.prototype.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.orion.prototype.dto.PostSummaryDto;
+import com.orion.prototype.dto.SearchResultDto;
+import com.orion.prototype.entity.Comment;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.repository.CommentRepository;
+import com.orion.prototype.repository.PostRepository;
+
+/**
+ * Full-text search over posts and comments, served from an in-process
+ * {@link SearchIndex}. The index is rebuilt from the database at startup and
+ * kept current by the post and comment services.
+ *
+ * A rebuild fills a new index off to the side. Updates committed meanwhile
+ * only record their post id; those posts are reloaded from the database into
+ * the new index before it replaces the current one, so a post deleted during
+ * the rebuild cannot come back and its comments are not indexed twice.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    private static final int MAX_RESULTS = 100;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private volatile SearchIndex index = new SearchIndex();
+    // Posts changed while a rebuild runs, null outside rebuilds; guarded by this
+    private Set<Long> changedDuringRebuild;
+
+    public SearchService(PostRepository postRepository, CommentRepository commentRepository) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+    }
+
+    // Rebuild in the background so startup is not delayed; searches see the previous index meanwhile
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        SearchIndex rebuilt = new SearchIndex();
+        long afterId = 0;
+        List<Post> batch;
+        do {
+            batch = postRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            load(rebuilt, batch);
+            afterId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        // Reload what changed until a pass ends with nothing new, then switch under the same lock
+        while (true) {
+            Set<Long> changed;
+            synchronized (this) {
+                if (changedDuringRebuild.isEmpty()) {
+                    changedDuringRebuild = null;
+                    index = rebuilt;
+                    break;
+                }
+                changed = changedDuringRebuild;
+                changedDuringRebuild = new HashSet<>();
+            }
+            changed.forEach(rebuilt::removePost);
+            load(rebuilt, postRepository.findAllById(changed));
+        }
+        log.info("Search index rebuilt: {} posts in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    private void load(SearchIndex target, List<Post> posts) {
+        if (posts.isEmpty()) {
+            return;
+        }
+        for (Post post : posts) {
+            target.indexPost(post.getId(), post.getTopic().getId(), post.getTitle(), post.getContent());
+        }
+        List<Long> postIds = posts.stream().map(Post::getId).toList();
+        for (Comment comment : commentRepository.findAllByPostIdInOrderByCreatedAtAsc(postIds)) {
+            target.indexComment(comment.getPost().getId(), comment.getId(), comment.getContent());
+        }
+    }
+
+    public List<SearchResultDto> search(String query, Long topicId, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La recherche est vide");
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nombre de résultats invalide: " + limit);
+        }
+
+        List<SearchIndex.Hit> hits = index.search(query, topicId, Math.min(limit, MAX_RESULTS));
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, PostSummaryDto> summaries = postRepository
+                .findSummariesByIds(hits.stream().map(SearchIndex.Hit::postId).toList())
+                .stream()
+                .collect(Collectors.toMap(PostSummaryDto::id, Function.identity()));
+
+        // Keep the index order; a post deleted meanwhile is simply skipped
+        return hits.stream()
+                .filter(hit -> summaries.containsKey(hit.postId()))
+                .map(hit -> new SearchResultDto(summaries.get(hit.postId()), hit.score()))
+                .toList();
+    }
+
+    public void indexPost(Post post) {
+        Long postId = post.getId();
+        Long topicId = post.getTopic().getId();
+        String title = post.getTitle();
+        String content = post.getContent();
+        afterCommit(postId, target -> target.indexPost(postId, topicId, title, content));
+    }
+
+    public void indexComment(Long postId, Long commentId, String content) {
+        afterCommit(postId, target -> target.indexComment(postId, commentId, content));
+    }
+
+    public void removePost(Long postId) {
+        afterCommit(postId, target -> target.removePost(postId));
+    }
+
+    // Only index what was committed
+    private void afterCommit(Long postId, Consumer<SearchIndex> update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(postId, update);
+                }
+            });
+        } else {
+            apply(postId, update);
+        }
+    }
+
+    private synchronized void apply(Long postId, Consumer<SearchIndex> update) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(postId);
+        } else {
+            update.accept(index);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.orion.prototype.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of the topics a user follows: topic ids sorted in a long[]
+ * with the matching subscription ids alongside. A few hundred bytes per
+ * user, membership is a binary search, and nothing is boxed until a query
+ * needs the ids as parameters.
+ */
+public final class SubscribedTopics {
+
+    static final SubscribedTopics EMPTY = new SubscribedTopics(new long[0], new long[0]);
+
+    private final long[] topicIds;
+    private final long[] subscriptionIds;
+
+    private SubscribedTopics(long[] topicIds, long[] subscriptionIds) {
+        this.topicIds = topicIds;
+        this.subscriptionIds = subscriptionIds;
+    }
+
+    // Rows of (subscription id, topic id), in any order
+    static SubscribedTopics of(List<Object[]> rows) {
+        long[][] pairs = new long[rows.size()][];
+        for (int i = 0; i < pairs.length; i++) {
+            Object[] row = rows.get(i);
+            pairs[i] = new long[] { ((Number) row[1]).longValue(), ((Number) row[0]).longValue() };
+        }
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+
+        long[] topicIds = new long[pairs.length];
+        long[] subscriptionIds = new long[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            topicIds[i] = pairs[i][0];
+            subscriptionIds[i] = pairs[i][1];
+        }
+        return new SubscribedTopics(topicIds, subscriptionIds);
+    }
+
+    public boolean contains(long topicId) {
+        return Arrays.binarySearch(topicIds, topicId) >= 0;
+    }
+
+    // Topic of one of these subscriptions, or -1 when it is not the user's
+    public long topicOf(long subscriptionId) {
+        for (int i = 0; i < subscriptionIds.length; i++) {
+            if (subscriptionIds[i] == subscriptionId) {
+                return topicIds[i];
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return topicIds.length;
+    }
+
+    public boolean isEmpty() {
+        return topicIds.length == 0;
+    }
+
+    public long topicId(int index) {
+        return topicIds[index];
+    }
+
+    public long subscriptionId(int index) {
+        return subscriptionIds[index];
+    }
+
+    // Boxed copy for IN (...) query parameters
+    public List<Long> topicIdList() {
+        return Arrays.stream(topicIds).boxed().toList();
+    }
+}
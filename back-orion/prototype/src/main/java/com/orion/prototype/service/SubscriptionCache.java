@@ -0,0 +1,104 @@
+package com.orion.prototype.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.orion.prototype.repository.SubscriptionRepository;
+
+/**
+ * Subscribed topics per user, loaded with one id-only query and kept until
+ * the user subscribes or unsubscribes. Bounded like the token cache: when
+ * full, arbitrary entries are dropped down to 90% of the bound. Changes made
+ * by another instance or directly in the database are not seen until the
+ * entry is evicted.
+ *
+ * Each invalidation bumps a generation for its user, so a load that raced
+ * with it is not kept. Generations live in a fixed array indexed by user id:
+ * users sharing a slot only cost each other a skipped store, never a stale
+ * entry.
+ */
+@Component
+public class SubscriptionCache {
+
+    private static final int GENERATIONS = 4096;
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final int maxSize;
+    private final Map<Long, SubscribedTopics> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATIONS);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SubscriptionCache(SubscriptionRepository subscriptionRepository,
+            @Value("${app.subscriptions.cache.max-size:50000}") int maxSize) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.maxSize = maxSize;
+    }
+
+    public SubscribedTopics get(Long userId) {
+        SubscribedTopics topics = entries.get(userId);
+        if (topics != null) {
+            hits.increment();
+            return topics;
+        }
+        misses.increment();
+
+        int slot = slot(userId);
+        long generation = generations.get(slot);
+        topics = SubscribedTopics.of(subscriptionRepository.findIdsByUserId(userId));
+        if (maxSize > 0 && generations.get(slot) == generation) {
+            if (entries.size() >= maxSize) {
+                evict();
+            }
+            entries.put(userId, topics);
+            // An invalidation between the check and the put may have missed this entry
+            if (generations.get(slot) != generation) {
+                entries.remove(userId, topics);
+            }
+        }
+        return topics;
+    }
+
+    public void invalidate(Long userId) {
+        generations.incrementAndGet(slot(userId));
+        entries.remove(userId);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATIONS; i++) {
+            generations.incrementAndGet(i);
+        }
+        entries.clear();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        Iterator<Long> keys = entries.keySet().iterator();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static int slot(Long userId) {
+        return Long.hashCode(userId) & (GENERATIONS - 1);
+    }
+}
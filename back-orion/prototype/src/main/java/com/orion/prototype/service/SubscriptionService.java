@@ -1,17 +1,22 @@
 package com.orion.prototype.service;
 
+import com.orion.prototype.dto.SubscribeAllRequest;
 import com.orion.prototype.dto.SubscriptionDto;
+import com.orion.prototype.dto.TopicDto;
 import com.orion.prototype.entity.Subscription;
-import com.orion.prototype.entity.Topic;
-import com.orion.prototype.entity.User;
 import com.orion.prototype.repository.SubscriptionRepository;
 import com.orion.prototype.repository.TopicRepository;
 import com.orion.prototype.repository.UserRepository;
+import com.orion.prototype.security.AuthenticatedUser;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
@@ -20,65 +25,168 @@ public class SubscriptionService {
     private final SubscriptionRepository subscriptionRepository;
     private final TopicRepository topicRepository;
     private final UserRepository userRepository;
+    private final TimelineService timelineService;
+    private final TopicCatalog topicCatalog;
+    private final SubscriptionCache subscriptionCache;
+    private final TransactionTemplate transactionTemplate;
+    private final TopicStats topicStats;
 
     public SubscriptionService(SubscriptionRepository subscriptionRepository,
             TopicRepository topicRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            TimelineService timelineService,
+            TopicCatalog topicCatalog,
+            SubscriptionCache subscriptionCache,
+            TransactionTemplate transactionTemplate,
+            TopicStats topicStats) {
         this.subscriptionRepository = subscriptionRepository;
         this.topicRepository = topicRepository;
         this.userRepository = userRepository;
+        this.timelineService = timelineService;
+        this.topicCatalog = topicCatalog;
+        this.subscriptionCache = subscriptionCache;
+        this.transactionTemplate = transactionTemplate;
+        this.topicStats = topicStats;
     }
 
     // S’abonner à un topic
     public SubscriptionDto subscribe(Long topicId, Authentication authentication) {
-        String email = (String) authentication.getPrincipal();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Utilisateur introuvable"));
+        Long userId = AuthenticatedUser.of(authentication).id();
 
-        Topic topic = topicRepository.findById(topicId)
+        // Validated against the topic catalog and the cached subscriptions, no database round trip
+        TopicDto topic = topicCatalog.find(topicId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic introuvable"));
 
-        if (subscriptionRepository.findByUserAndTopicId(user, topicId).isPresent()) {
+        if (subscriptionCache.get(userId).contains(topicId)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Déjà abonné à ce topic");
         }
 
-        Subscription saved = subscriptionRepository.save(
-                Subscription.builder().user(user).topic(topic).build());
+        Subscription saved;
+        try {
+            saved = subscriptionRepository.save(Subscription.builder()
+                    .user(userRepository.getReferenceById(userId))
+                    .topic(topicRepository.getReferenceById(topicId))
+                    .build());
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent request subscribed first (uk_subscriptions_user_topic)
+            subscriptionCache.invalidate(userId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Déjà abonné à ce topic");
+        }
+        subscriptionCache.invalidate(userId);
+        timelineService.onSubscribe(userId, topicId);
+        topicStats.onSubscribed(topicId);
+
+        return new SubscriptionDto(saved.getId(), topic.id(), topic.name());
+    }
 
-        return toDto(saved);
+    // S’abonner à plusieurs topics en une transaction; topics already followed are kept as is.
+    // Returns all the user's subscriptions afterwards
+    public List<SubscriptionDto> subscribeAll(List<Long> topicIds, Authentication authentication) {
+        Long userId = AuthenticatedUser.of(authentication).id();
+        List<Long> ids = checkTopics(topicIds);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Plain read, no lock: a row inserted meanwhile by a concurrent request fails the insert
+                // on uk_subscriptions_user_topic, so timelines and counters follow what the insert did
+                List<Long> existing = subscriptionRepository.findTopicIds(userId, ids);
+                List<Long> missing = ids.stream().filter(topicId -> !existing.contains(topicId)).toList();
+                if (missing.isEmpty()) {
+                    return;
+                }
+                if (subscriptionRepository.insertAll(userId, missing) != missing.size()) {
+                    // A topic was deleted since the catalog check
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic introuvable");
+                }
+                for (Long topicId : missing) {
+                    timelineService.onSubscribe(userId, topicId);
+                    topicStats.onSubscribed(topicId);
+                }
+            });
+        } catch (DataIntegrityViolationException ex) {
+            subscriptionCache.invalidate(userId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Abonnements modifiés par une autre requête");
+        }
+        subscriptionCache.invalidate(userId);
+        return subscriptionsOf(userId);
+    }
+
+    // Se désabonner de plusieurs topics en une requête; topics not followed are ignored
+    public List<SubscriptionDto> unsubscribeAll(List<Long> topicIds, Authentication authentication) {
+        Long userId = AuthenticatedUser.of(authentication).id();
+        List<Long> ids = checkTopics(topicIds);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Plain read, no lock; fewer rows deleted than read means a concurrent request removed
+            // some first, and the transaction is rolled back rather than counted twice
+            List<Long> existing = subscriptionRepository.findTopicIds(userId, ids);
+            if (existing.isEmpty()) {
+                return;
+            }
+            if (subscriptionRepository.deleteByUserIdAndTopicIdIn(userId, existing) != existing.size()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Abonnements modifiés par une autre requête");
+            }
+            for (Long topicId : existing) {
+                timelineService.onUnsubscribe(userId, topicId);
+                topicStats.onUnsubscribed(topicId);
+            }
+        });
+        subscriptionCache.invalidate(userId);
+        return subscriptionsOf(userId);
     }
 
     // Liste mes abonnements
     public List<SubscriptionDto> getMySubscriptions(Authentication authentication) {
-        String email = (String) authentication.getPrincipal();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Utilisateur introuvable"));
+        return subscriptionsOf(AuthenticatedUser.of(authentication).id());
+    }
 
-        return subscriptionRepository.findByUser(user).stream()
-                .map(this::toDto)
-                .toList();
+    // Topic names from the catalog
+    private List<SubscriptionDto> subscriptionsOf(Long userId) {
+        SubscribedTopics topics = subscriptionCache.get(userId);
+
+        List<SubscriptionDto> subscriptions = new ArrayList<>(topics.size());
+        for (int i = 0; i < topics.size(); i++) {
+            long topicId = topics.topicId(i);
+            subscriptions.add(new SubscriptionDto(topics.subscriptionId(i), topicId,
+                    topicCatalog.find(topicId).map(TopicDto::name).orElse(null)));
+        }
+        return subscriptions;
     }
 
     // Se désabonner
     public void unsubscribe(Long subscriptionId, Authentication authentication) {
-        String email = (String) authentication.getPrincipal();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Utilisateur introuvable"));
-
-        Subscription sub = subscriptionRepository.findById(subscriptionId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Abonnement introuvable"));
-
-        if (!sub.getUser().equals(user)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Vous ne pouvez pas supprimer cet abonnement");
+        Long userId = AuthenticatedUser.of(authentication).id();
+
+        long topicId = subscriptionCache.get(userId).topicOf(subscriptionId);
+        if (topicId < 0) {
+            // Not one of the user's: someone else's, or no such subscription
+            if (subscriptionRepository.existsById(subscriptionId)) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Vous ne pouvez pas supprimer cet abonnement");
+            }
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Abonnement introuvable");
         }
 
-        subscriptionRepository.delete(sub);
+        int deleted = subscriptionRepository.deleteByIdAndUserId(subscriptionId, userId);
+        subscriptionCache.invalidate(userId);
+        if (deleted == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Abonnement introuvable");
+        }
+        timelineService.onUnsubscribe(userId, topicId);
+        topicStats.onUnsubscribed(topicId);
     }
 
-    private SubscriptionDto toDto(Subscription s) {
-        return new SubscriptionDto(
-                s.getId(),
-                s.getTopic().getId(),
-                s.getTopic().getName());
+    // Distinct topic ids of a bulk request, all known to the catalog
+    private List<Long> checkTopics(List<Long> topicIds) {
+        if (topicIds == null || topicIds.isEmpty() || topicIds.size() > SubscribeAllRequest.MAX_TOPICS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Entre 1 et " + SubscribeAllRequest.MAX_TOPICS + " topics attendus");
+        }
+        LinkedHashSet<Long> ids = new LinkedHashSet<>(topicIds);
+        for (Long topicId : ids) {
+            if (topicId == null || topicCatalog.find(topicId).isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic introuvable: " + topicId);
+            }
+        }
+        return List.copyOf(ids);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.orion.prototype.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.TimelineState;
+import com.orion.prototype.repository.TimelineEntryRepository;
+import com.orion.prototype.repository.TimelineStateRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fan-out-on-write timelines. When enabled, each new post is queued and a
+ * background worker appends it to the timeline of every subscriber of its
+ * topic, so reading a feed is a single range scan on timeline_entries. Each
+ * timeline keeps its newest app.feed.timeline.max-entries posts, with no gap:
+ * older feed pages continue from the posts table after its last row.
+ */
+@Service
+public class TimelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineService.class);
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final TimelineStateRepository timelineStateRepository;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final ExecutorService fanOutExecutor;
+
+    public TimelineService(TimelineEntryRepository timelineEntryRepository,
+            TimelineStateRepository timelineStateRepository,
+            @Value("${app.feed.timeline.enabled:false}") boolean enabled,
+            @Value("${app.feed.timeline.max-entries:${app.feed.timeline.backfill-size:200}}") int maxEntries,
+            @Value("${app.feed.timeline.queue-capacity:10000}") int queueCapacity) {
+        this.timelineEntryRepository = timelineEntryRepository;
+        this.timelineStateRepository = timelineStateRepository;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        // Single worker; when the queue is full the caller fans out itself so no post is lost
+        this.fanOutExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "timeline-fan-out");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Timelines miss every post and subscription made while the mode was off.
+     * A start with the mode off clears the maintained flag; a start with the
+     * mode on and no flag rebuilds every timeline from the subscriptions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        boolean maintained = timelineStateRepository.findById(TimelineState.ID)
+                .map(TimelineState::isMaintained)
+                .orElse(false);
+        if (!enabled) {
+            if (maintained) {
+                timelineStateRepository.save(new TimelineState(TimelineState.ID, false));
+                log.info("Timelines no longer maintained, they will be rebuilt when the mode is switched on");
+            }
+            return;
+        }
+        if (!maintained) {
+            rebuild();
+        }
+    }
+
+    // Posts were written without fan-out (bulk import): rebuild at the next start with the mode on
+    public void markStale() {
+        timelineStateRepository.save(new TimelineState(TimelineState.ID, false));
+    }
+
+    // Replace every timeline by the newest max-entries posts of the user's topics
+    public void rebuild() {
+        timelineEntryRepository.deleteAllInBatch();
+        int inserted = timelineEntryRepository.backfillAll(maxEntries);
+        timelineStateRepository.save(new TimelineState(TimelineState.ID, true));
+        log.info("Timelines rebuilt from subscriptions: {} entries", inserted);
+    }
+
+    // Keep each timeline at its newest max-entries rows; older feed pages come from the posts table
+    @Scheduled(initialDelayString = "${app.feed.timeline.trim-ms:600000}",
+            fixedDelayString = "${app.feed.timeline.trim-ms:600000}")
+    public void trim() {
+        if (!enabled) {
+            return;
+        }
+        int removed = timelineEntryRepository.trim(maxEntries);
+        if (removed > 0) {
+            log.info("Timelines trimmed: {} entries removed", removed);
+        }
+    }
+
+    // Queue the fan-out of a new post, after the surrounding transaction commits
+    public void onPostCreated(Long postId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueueFanOut(postId);
+                }
+            });
+        } else {
+            enqueueFanOut(postId);
+        }
+    }
+
+    // A post moved to another topic: drop it from old timelines and fan it out again
+    public void onPostMoved(Long postId) {
+        if (!enabled) {
+            return;
+        }
+        timelineEntryRepository.deleteByPostId(postId);
+        onPostCreated(postId);
+    }
+
+    // Entries are removed whatever the mode, so re-enabling it never shows deleted posts
+    public void onPostDeleted(Long postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+    }
+
+    // The new topic's posts may be older than the timeline's last row: trimming back to
+    // max-entries keeps the timeline the newest posts of the feed, without a gap
+    @Transactional
+    public void onSubscribe(Long userId, Long topicId) {
+        if (enabled) {
+            timelineEntryRepository.backfill(userId, topicId, maxEntries);
+            timelineEntryRepository.trimUser(userId, maxEntries);
+        }
+    }
+
+    public void onUnsubscribe(Long userId, Long topicId) {
+        if (enabled) {
+            timelineEntryRepository.deleteByUserIdAndTopicId(userId, topicId);
+        }
+    }
+
+    // Timeline page, newest first, after the optional (createdAt, postId) cursor
+    public List<Post> findPosts(Long userId, LocalDateTime afterCreatedAt, Long afterPostId, int limit) {
+        if (afterPostId == null) {
+            return timelineEntryRepository.findTimeline(userId, Limit.of(limit));
+        }
+        return timelineEntryRepository.findTimelineAfter(userId, afterCreatedAt, afterPostId, Limit.of(limit));
+    }
+
+    private void enqueueFanOut(Long postId) {
+        fanOutExecutor.execute(() -> {
+            try {
+                timelineEntryRepository.fanOut(postId);
+            } catch (RuntimeException ex) {
+                log.error("Timeline fan-out failed for post {}", postId, ex);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        fanOutExecutor.shutdown();
+        fanOutExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
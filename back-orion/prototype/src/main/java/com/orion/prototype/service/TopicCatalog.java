@@ -0,0 +1,121 @@
+package com.orion.prototype.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.orion.prototype.dto.TopicDto;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.repository.TopicRepository;
+
+/**
+ * Read-mostly copy of the topics table. Readers use an immutable snapshot;
+ * a refresh builds a new snapshot and swaps it atomically (copy-on-write).
+ */
+@Component
+public class TopicCatalog {
+
+    // Topics ordered by name, an id -> position map as sorted primitive arrays, and the snapshot ETag
+    private record Snapshot(List<TopicDto> byName, long[] sortedIds, int[] positions, String etag) {
+
+        static Snapshot of(List<TopicDto> byName) {
+            Integer[] order = new Integer[byName.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(byName.get(a).id(), byName.get(b).id()));
+
+            long[] sortedIds = new long[order.length];
+            int[] positions = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedIds[i] = byName.get(order[i]).id();
+                positions[i] = order[i];
+            }
+            return new Snapshot(List.copyOf(byName), sortedIds, positions, "\"" + digest(byName) + "\"");
+        }
+
+        // SHA-256 of the topics in order: a strong ETag needs more than a 32-bit hash
+        private static String digest(List<TopicDto> byName) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                for (TopicDto topic : byName) {
+                    String row = topic.id() + "\u0000" + topic.name() + "\u0000" + topic.description() + "\u0001";
+                    digest.update(row.getBytes(StandardCharsets.UTF_8));
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponible", e);
+            }
+        }
+
+        TopicDto find(long id) {
+            int i = Arrays.binarySearch(sortedIds, id);
+            return i >= 0 ? byName.get(positions[i]) : null;
+        }
+    }
+
+    private final TopicRepository topicRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public TopicCatalog(TopicRepository topicRepository) {
+        this.topicRepository = topicRepository;
+    }
+
+    public List<TopicDto> findAll() {
+        return current().byName();
+    }
+
+    // Changes whenever a reload sees different topics
+    public String etag() {
+        return current().etag();
+    }
+
+    /**
+     * Topic by id from the snapshot. A miss is checked against the database
+     * once, and reloads the catalog if the topic was added in the meantime.
+     */
+    public Optional<TopicDto> find(Long id) {
+        TopicDto topic = current().find(id);
+        if (topic != null) {
+            return Optional.of(topic);
+        }
+        if (topicRepository.existsById(id)) {
+            return Optional.ofNullable(load().find(id));
+        }
+        return Optional.empty();
+    }
+
+    // Reload after topic changes, and periodically to pick up changes made outside the application
+    @Scheduled(initialDelayString = "${app.topics.catalog.refresh-ms:300000}",
+            fixedDelayString = "${app.topics.catalog.refresh-ms:300000}")
+    public void refresh() {
+        load();
+    }
+
+    private Snapshot load() {
+        List<TopicDto> topics = topicRepository.findAll(Sort.by(Sort.Direction.ASC, "name")).stream()
+                .map(this::toDto)
+                .toList();
+        Snapshot fresh = Snapshot.of(topics);
+        snapshot.set(fresh);
+        return fresh;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        return current != null ? current : load();
+    }
+
+    private TopicDto toDto(Topic topic) {
+        return new TopicDto(topic.getId(), topic.getDescription(), topic.getName());
+    }
+}
@@ -1,30 +1,73 @@
 package com.orion.prototype.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import com.orion.prototype.dto.TopicDto;
-import com.orion.prototype.entity.Topic;
-import com.orion.prototype.repository.TopicRepository;
+import com.orion.prototype.dto.TopicSummaryDto;
 
 @Service
 public class TopicService {
 
-    private final TopicRepository topicRepository;
+    // The served topic list and its ETag, computed from that same list
+    public record TopicList(String etag, List<TopicSummaryDto> topics) {
+    }
+
+    // Topic list with the catalog and statistics versions it was built from
+    private record Snapshot(String catalogEtag, long statsVersion, TopicList list) {
+    }
+
+    private final TopicCatalog topicCatalog;
+    private final TopicStats topicStats;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public TopicService(TopicCatalog topicCatalog, TopicStats topicStats) {
+        this.topicCatalog = topicCatalog;
+        this.topicStats = topicStats;
+    }
 
-    public TopicService(TopicRepository topicRepository) {
-        this.topicRepository = topicRepository;
+    // Served from the in-memory catalog, already sorted by name, and the in-memory statistics.
+    // The ETag is a digest of the list, so it is the same across restarts and instances; both
+    // are rebuilt only when the catalog or the statistics have changed
+    public TopicList getTopics() {
+        String catalogEtag = topicCatalog.etag();
+        // Read before the statistics, so a stored snapshot is never older than its version
+        long statsVersion = topicStats.version();
+        Snapshot current = snapshot.get();
+        if (current == null || current.statsVersion() != statsVersion || !current.catalogEtag().equals(catalogEtag)) {
+            List<TopicSummaryDto> topics = topicCatalog.findAll().stream()
+                    .map(this::toSummary)
+                    .toList();
+            current = new Snapshot(catalogEtag, statsVersion, new TopicList("\"" + digest(topics) + "\"", topics));
+            snapshot.set(current);
+        }
+        return current.list();
     }
 
-    public List<TopicDto> getAllTopics() {
-        return topicRepository.findAll(Sort.by(Sort.Direction.ASC, "name")).stream()
-                .map(this::toDto)
-                .toList();
+    private TopicSummaryDto toSummary(TopicDto topic) {
+        TopicStats.Stats stats = topicStats.get(topic.id());
+        return new TopicSummaryDto(topic.id(), topic.description(), topic.name(),
+                stats.posts(), stats.subscribers(), stats.lastPostAt());
     }
 
-    private TopicDto toDto(Topic topic) {
-        return new TopicDto(topic.getId(), topic.getDescription(), topic.getName());
+    private static String digest(List<TopicSummaryDto> topics) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (TopicSummaryDto topic : topics) {
+                String row = topic.id() + "\u0000" + topic.name() + "\u0000" + topic.description() + "\u0000"
+                        + topic.postCount() + "\u0000" + topic.subscriberCount() + "\u0000" + topic.lastPostAt()
+                        + "\u0001";
+                digest.update(row.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
     }
 }
@@ -0,0 +1,221 @@
+package com.orion.prototype.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.orion.prototype.repository.PostRepository;
+import com.orion.prototype.repository.SubscriptionRepository;
+
+/**
+ * Post count, subscriber count and last post date per topic, kept in memory.
+ * Built from two grouped queries at startup, then moved by the post and
+ * subscription hooks once their transaction commits. A periodic
+ * reconciliation recomputes everything and replaces the counters, which
+ * fixes drift from races, changes made outside the application and the last
+ * post date after a deletion.
+ *
+ * Hooks that run while a reconciliation loads are applied to the fresh
+ * counters too, since its queries may have missed their change. One whose
+ * commit landed just before the queries is then counted twice, until the
+ * next reconciliation.
+ */
+@Component
+public class TopicStats {
+
+    private static final Logger log = LoggerFactory.getLogger(TopicStats.class);
+
+    public record Stats(long posts, long subscribers, LocalDateTime lastPostAt) {
+        static final Stats EMPTY = new Stats(0, 0, null);
+    }
+
+    private static final class Counters {
+        private final LongAdder posts = new LongAdder();
+        private final LongAdder subscribers = new LongAdder();
+        private final AtomicReference<LocalDateTime> lastPostAt = new AtomicReference<>();
+
+        void touch(LocalDateTime at) {
+            if (at != null) {
+                lastPostAt.accumulateAndGet(at, (current, candidate) ->
+                        current == null || candidate.isAfter(current) ? candidate : current);
+            }
+        }
+
+        Stats snapshot() {
+            return new Stats(posts.sum(), subscribers.sum(), lastPostAt.get());
+        }
+    }
+
+    private final PostRepository postRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final AtomicReference<Map<Long, Counters>> counters = new AtomicReference<>();
+    // Changes with every update, so the topic list ETag is only recomputed when needed
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantLock reconciling = new ReentrantLock();
+    // Hook updates since the current reconciliation started loading, guarded by loadLock. Hooks only
+    // hold it to record their update and pick the counters to apply it to, never while applying it
+    private final Object loadLock = new Object();
+    private List<Consumer<Map<Long, Counters>>> duringLoad;
+
+    public TopicStats(PostRepository postRepository, SubscriptionRepository subscriptionRepository) {
+        this.postRepository = postRepository;
+        this.subscriptionRepository = subscriptionRepository;
+    }
+
+    public Stats get(Long topicId) {
+        Counters topic = current().get(topicId);
+        return topic == null ? Stats.EMPTY : topic.snapshot();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    // Hooks, applied after the surrounding transaction (if any) commits
+
+    public void onPostCreated(Long topicId, LocalDateTime createdAt) {
+        afterCommit(stats -> {
+            Counters topic = counters(stats, topicId);
+            topic.posts.increment();
+            topic.touch(createdAt);
+        });
+    }
+
+    // The last post date stays until the next reconciliation
+    public void onPostDeleted(Long topicId) {
+        afterCommit(stats -> counters(stats, topicId).posts.decrement());
+    }
+
+    public void onPostMoved(Long fromTopicId, Long toTopicId, LocalDateTime createdAt) {
+        onPostDeleted(fromTopicId);
+        onPostCreated(toTopicId, createdAt);
+    }
+
+    public void onSubscribed(Long topicId) {
+        afterCommit(stats -> counters(stats, topicId).subscribers.increment());
+    }
+
+    public void onUnsubscribed(Long topicId) {
+        afterCommit(stats -> counters(stats, topicId).subscribers.decrement());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.topics.stats.reconcile-ms:600000}",
+            fixedDelayString = "${app.topics.stats.reconcile-ms:600000}")
+    public void reconcile() {
+        reconciling.lock();
+        try {
+            reconcileLocked();
+        } finally {
+            reconciling.unlock();
+        }
+    }
+
+    private void reconcileLocked() {
+        synchronized (loadLock) {
+            duringLoad = new ArrayList<>();
+        }
+        Map<Long, Counters> fresh;
+        try {
+            fresh = load();
+        } catch (RuntimeException ex) {
+            synchronized (loadLock) {
+                duringLoad = null;
+            }
+            throw ex;
+        }
+        Map<Long, Counters> previous;
+        // Hooks that recorded an update picked the previous counters, so it is applied here once
+        synchronized (loadLock) {
+            for (Consumer<Map<Long, Counters>> update : duringLoad) {
+                update.accept(fresh);
+            }
+            duringLoad = null;
+            previous = counters.getAndSet(fresh);
+        }
+        version.incrementAndGet();
+        if (previous != null) {
+            int drifted = 0;
+            for (Map.Entry<Long, Counters> entry : fresh.entrySet()) {
+                Counters old = previous.get(entry.getKey());
+                if (old == null || !old.snapshot().equals(entry.getValue().snapshot())) {
+                    drifted++;
+                }
+            }
+            if (drifted > 0) {
+                log.info("Topic statistics reconciled: {} topics had drifted", drifted);
+            }
+        }
+    }
+
+    private Map<Long, Counters> load() {
+        Map<Long, Counters> fresh = new HashMap<>();
+        List<Object[]> posts = postRepository.countByTopic();
+        for (Object[] row : posts) {
+            Counters topic = fresh.computeIfAbsent((Long) row[0], id -> new Counters());
+            topic.posts.add(((Number) row[1]).longValue());
+            topic.touch((LocalDateTime) row[2]);
+        }
+        for (Object[] row : subscriptionRepository.countByTopic()) {
+            fresh.computeIfAbsent((Long) row[0], id -> new Counters()).subscribers.add(((Number) row[1]).longValue());
+        }
+        return new ConcurrentHashMap<>(fresh);
+    }
+
+    private Map<Long, Counters> current() {
+        Map<Long, Counters> current = counters.get();
+        if (current == null) {
+            counters.compareAndSet(null, load());
+            current = counters.get();
+        }
+        return current;
+    }
+
+    private static Counters counters(Map<Long, Counters> counters, Long topicId) {
+        return counters.computeIfAbsent(topicId, id -> new Counters());
+    }
+
+    private void afterCommit(Consumer<Map<Long, Counters>> update) {
+        Runnable versioned = () -> {
+            Map<Long, Counters> current;
+            synchronized (loadLock) {
+                if (duringLoad != null) {
+                    duringLoad.add(update);
+                }
+                current = counters.get();
+            }
+            // Not loaded yet: the first load reads the committed change
+            if (current != null) {
+                update.accept(current);
+            }
+            version.incrementAndGet();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versioned.run();
+                }
+            });
+        } else {
+            versioned.run();
+        }
+    }
+}
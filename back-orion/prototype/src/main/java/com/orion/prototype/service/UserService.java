@@ -8,14 +8,23 @@ import org.springframework.stereotype.Service;
 import com.orion.prototype.dto.UserDto;
 import com.orion.prototype.entity.User;
 import com.orion.prototype.repository.UserRepository;
+import com.orion.prototype.security.JwtService;
+import com.orion.prototype.security.TokenVersions;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    private final PostVersions postVersions;
+    private final TokenVersions tokenVersions;
+    private final JwtService jwtService;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PostVersions postVersions, TokenVersions tokenVersions,
+            JwtService jwtService) {
         this.userRepository = userRepository;
+        this.postVersions = postVersions;
+        this.tokenVersions = tokenVersions;
+        this.jwtService = jwtService;
     }
 
     // Get all users (as DTOs)
@@ -40,6 +49,10 @@ public class UserService {
     // Delete a user
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        postVersions.onEverythingChanged();
+        // Tokens already issued would otherwise pass and fail later on the foreign keys
+        tokenVersions.forget(id);
+        jwtService.evictUser(id);
     }
 
     // Convert User entity to UserDto
@@ -0,0 +1,101 @@
+package com.orion.prototype;
+
+import java.util.List;
+
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.CommentRepository;
+import com.orion.prototype.repository.PostRepository;
+import com.orion.prototype.repository.RefreshTokenRepository;
+import com.orion.prototype.repository.SubscriptionRepository;
+import com.orion.prototype.repository.TimelineEntryRepository;
+import com.orion.prototype.repository.TopicRepository;
+import com.orion.prototype.repository.UserRepository;
+import com.orion.prototype.security.AuthenticatedUser;
+import com.orion.prototype.service.SearchService;
+import com.orion.prototype.service.SubscriptionCache;
+import com.orion.prototype.service.TopicCatalog;
+import com.orion.prototype.service.TopicStats;
+
+/**
+ * Shared fixture of the @SpringBootTest classes: empties the tables and the
+ * in-memory copies built from them, and creates users and topics. Imported
+ * with {@code @Import(TestData.class)}, called from {@code @BeforeEach}.
+ */
+@TestComponent
+public class TestData {
+
+    private final UserRepository userRepository;
+    private final TopicRepository topicRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final TopicCatalog topicCatalog;
+    private final SubscriptionCache subscriptionCache;
+    private final TopicStats topicStats;
+    private final SearchService searchService;
+
+    public TestData(UserRepository userRepository, TopicRepository topicRepository,
+            SubscriptionRepository subscriptionRepository, PostRepository postRepository,
+            CommentRepository commentRepository, RefreshTokenRepository refreshTokenRepository,
+            TimelineEntryRepository timelineEntryRepository,
+            TopicCatalog topicCatalog, SubscriptionCache subscriptionCache, TopicStats topicStats,
+            SearchService searchService) {
+        this.userRepository = userRepository;
+        this.topicRepository = topicRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.timelineEntryRepository = timelineEntryRepository;
+        this.topicCatalog = topicCatalog;
+        this.subscriptionCache = subscriptionCache;
+        this.topicStats = topicStats;
+        this.searchService = searchService;
+    }
+
+    // Empty database, catalog, subscription cache, topic statistics and search index
+    public void reset() {
+        timelineEntryRepository.deleteAllInBatch();
+        subscriptionRepository.deleteAll();
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        topicRepository.deleteAll();
+        refreshTokenRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+
+        topicCatalog.refresh();
+        subscriptionCache.invalidateAll();
+        topicStats.reconcile();
+        searchService.rebuild();
+    }
+
+    public User user(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@orion.dev")
+                .password("x")
+                .build());
+    }
+
+    // Saved and added to the catalog
+    public Topic topic(String name) {
+        Topic topic = topicRepository.save(Topic.builder().name(name).build());
+        topicCatalog.refresh();
+        return topic;
+    }
+
+    public static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getUsername(), 0, "t", Long.MAX_VALUE);
+    }
+
+    public static Authentication login(User user) {
+        return new UsernamePasswordAuthenticationToken(principal(user), null, List.of());
+    }
+}
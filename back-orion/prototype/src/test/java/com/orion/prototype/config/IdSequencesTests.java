@@ -0,0 +1,77 @@
+package com.orion.prototype.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.entity.Comment;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.CommentRepository;
+import com.orion.prototype.repository.PostRepository;
+
+/**
+ * Startup alignment moves a sequence past the highest id of its table and
+ * never back, so ids already handed out are not reused.
+ */
+@Import(TestData.class)
+@SpringBootTest
+class IdSequencesTests {
+
+    private static final long LOADED_ID = 100_000;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private IdSequences idSequences;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        User author = testData.user("alice");
+        Topic topic = testData.topic("java");
+        Post post = postRepository.save(Post.builder().title("Post").content("...").author(author).topic(topic).build());
+        Comment comment = commentRepository.save(Comment.builder().content("...").author(author).post(post).build());
+        // As if loaded in bulk with explicit ids
+        jdbcTemplate.update("update comments set id = ? where id = ?", LOADED_ID, comment.getId());
+    }
+
+    @Test
+    void alignMovesSequencesPastLoadedIdsAndNeverBack() throws Exception {
+        idSequences.align();
+        long aligned = baseValue("comments_seq");
+        assertThat(aligned).isGreaterThanOrEqualTo(LOADED_ID + IdSequences.ALLOCATION_SIZE);
+
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.queryForObject("select next value for comments_seq", Long.class);
+        }
+        long advanced = baseValue("comments_seq");
+        idSequences.align();
+
+        assertThat(advanced).isGreaterThan(aligned);
+        assertThat(baseValue("comments_seq")).isEqualTo(advanced);
+    }
+
+    private long baseValue(String sequence) {
+        return jdbcTemplate.queryForObject(
+                "select base_value from information_schema.sequences where sequence_name = ?", Long.class, sequence);
+    }
+}
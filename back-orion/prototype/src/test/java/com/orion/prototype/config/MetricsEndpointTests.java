@@ -0,0 +1,55 @@
+package com.orion.prototype.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * The Prometheus scrape lists request timers tagged by controller method,
+ * repository timers, pool and Hibernate meters, and is only served on the
+ * management port.
+ */
+// Metrics export is off in tests unless asked for
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = { "management.server.port=0", "app.rate-limit.enabled=false" })
+class MetricsEndpointTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void scrapeExposesRequestRepositoryPoolAndHibernateMeters() {
+        restTemplate.postForEntity("/api/auth/login", Map.of("identifier", "nobody", "password", "secret"),
+                String.class);
+
+        String scrape = restTemplate.getForObject(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("handler=\"AuthController.login\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("hikaricp_connections_active")
+                .contains("hibernate_query_executions_total")
+                .contains("orion_jwt_cache_requests_total");
+    }
+
+    @Test
+    void applicationPortDoesNotServeMetrics() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isFalse();
+    }
+}
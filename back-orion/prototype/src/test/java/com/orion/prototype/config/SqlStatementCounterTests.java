@@ -0,0 +1,40 @@
+package com.orion.prototype.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SqlStatementCounterTests {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Test
+    void fingerprintFoldsLiteralsAndInLists() {
+        assertThat(SqlStatementCounter.fingerprint(
+                "select p1_0.id from posts p1_0\n  where p1_0.title = 'it''s' and p1_0.id in (?, ?,?) limit 20"))
+                .isEqualTo("select p1_0.id from posts p1_0 where p1_0.title = ? and p1_0.id in (?) limit ?");
+    }
+
+    @Test
+    void nestedScopesEachCountTheirOwnStatements() {
+        try (SqlStatementCounter.Scope outer = counter.open()) {
+            counter.inspect("select 1");
+            try (SqlStatementCounter.Scope inner = counter.open()) {
+                counter.inspect("select 2");
+                counter.inspect("select 3");
+                assertThat(inner.count()).isEqualTo(2);
+                assertThat(inner.fingerprints()).containsEntry("select ?", 2);
+            }
+            counter.inspect("select 4");
+            assertThat(outer.count()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void statementsOutsideAScopeAreIgnored() {
+        counter.inspect("select 1");
+        try (SqlStatementCounter.Scope scope = counter.open()) {
+            assertThat(scope.count()).isZero();
+        }
+    }
+}
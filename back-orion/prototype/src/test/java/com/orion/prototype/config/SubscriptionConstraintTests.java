@@ -0,0 +1,67 @@
+package com.orion.prototype.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+
+/**
+ * A subscriptions table left without its unique constraint (duplicates
+ * written before it existed) is deduplicated and constrained at startup.
+ */
+@Import(TestData.class)
+@SpringBootTest
+class SubscriptionConstraintTests {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private SubscriptionConstraint subscriptionConstraint;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User alice;
+    private Topic java;
+    private Topic go;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        alice = testData.user("alice");
+        java = testData.topic("java");
+        go = testData.topic("go");
+    }
+
+    @Test
+    void duplicatesAreDeletedBeforeTheConstraintIsAdded() throws Exception {
+        jdbcTemplate.execute("alter table subscriptions drop constraint " + SubscriptionConstraint.NAME);
+        assertThat(subscriptionConstraint.exists()).isFalse();
+        for (Topic topic : new Topic[] { java, java, go, java }) {
+            jdbcTemplate.update("insert into subscriptions (user_id, topic_id) values (?, ?)", alice.getId(), topic.getId());
+        }
+        Long first = jdbcTemplate.queryForObject("select min(id) from subscriptions where topic_id = ?", Long.class,
+                java.getId());
+
+        subscriptionConstraint.ensure();
+
+        assertThat(subscriptionConstraint.exists()).isTrue();
+        assertThat(jdbcTemplate.queryForList("select id from subscriptions where topic_id = ?", Long.class, java.getId()))
+                .containsExactly(first);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from subscriptions", Long.class)).isEqualTo(2);
+        assertThatThrownBy(() -> jdbcTemplate.update("insert into subscriptions (user_id, topic_id) values (?, ?)",
+                alice.getId(), go.getId())).isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
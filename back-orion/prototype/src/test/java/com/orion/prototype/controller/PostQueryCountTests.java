@@ -0,0 +1,179 @@
+package com.orion.prototype.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.config.SqlBudgetFilter;
+import com.orion.prototype.config.SqlStatementCounter;
+import com.orion.prototype.entity.Comment;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.Subscription;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.CommentRepository;
+import com.orion.prototype.repository.PostRepository;
+import com.orion.prototype.repository.SubscriptionRepository;
+
+/**
+ * Pins the number of SQL statements each post read endpoint issues, whatever
+ * the number of posts and comments, so an N+1 regression fails the build.
+ */
+@Import(TestData.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+class PostQueryCountTests {
+
+    private static final int POSTS = 12;
+    private static final int COMMENTS_PER_POST = 3;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private User reader;
+    private Topic topic;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        reader = testData.user("reader");
+        User writer = testData.user("writer");
+        topic = testData.topic("java");
+        Topic other = testData.topic("go");
+        subscriptionRepository.save(Subscription.builder().user(reader).topic(topic).build());
+
+        for (int i = 0; i < POSTS; i++) {
+            post = postRepository.save(Post.builder()
+                    .title("Post " + i)
+                    .content("Content " + i)
+                    .author(i % 2 == 0 ? writer : reader)
+                    .topic(i % 3 == 0 ? other : topic)
+                    .build());
+            for (int j = 0; j < COMMENTS_PER_POST; j++) {
+                commentRepository.save(Comment.builder()
+                        .content("Comment " + j)
+                        .author(j % 2 == 0 ? reader : writer)
+                        .post(post)
+                        .build());
+            }
+        }
+    }
+
+    @Test
+    void listEndpointsUseTwoStatements() throws Exception {
+        // Collection stamps are kept in memory
+        assertStatementCount(2, get("/api/posts"));
+        assertStatementCount(2, get("/api/posts/user/" + reader.getId()));
+        assertStatementCount(2, get("/api/posts/topic/" + topic.getId()).param("sort", "title"));
+        assertStatementCount(2, get("/api/posts").param("size", "5").param("sort", "author"));
+    }
+
+    @Test
+    void summaryEndpointUsesOneStatement() throws Exception {
+        assertStatementCount(1, get("/api/posts").param("view", "summary"));
+        assertStatementCount(1, get("/api/posts/topic/" + topic.getId()).param("view", "summary"));
+    }
+
+    @Test
+    void feedUsesTwoStatementsOnceSubscriptionsAreCached() throws Exception {
+        // The user id comes from the token principal, no user lookup; the first call
+        // also loads the subscribed topic ids, later ones take them from the cache
+        assertStatementCount(3, get("/api/posts/feed").param("size", "5"));
+        assertStatementCount(2, get("/api/posts/feed").param("size", "5"));
+    }
+
+    @Test
+    void singlePostAndCommentThreadAreBounded() throws Exception {
+        assertStatementCount(2, get("/api/posts/" + post.getId()));
+        assertStatementCount(1, get("/api/comments/post/" + post.getId()));
+        assertStatementCount(1, get("/api/comments/post/" + post.getId()).param("size", "2"));
+        // Stamp, then comments joined with their authors
+        assertStatementCount(2, get("/api/comments/post/" + post.getId()).param("all", "true"));
+    }
+
+    @Test
+    void conditionalGetAnswersNotModifiedWithoutStatements() throws Exception {
+        String etag = mockMvc.perform(get("/api/posts").with(asReader()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertStatementCount(0, get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, etag),
+                HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void commentChangesTheListTags() throws Exception {
+        String all = etag("/api/posts");
+        String byTopic = etag("/api/posts/topic/" + post.getTopic().getId());
+        String byAuthor = etag("/api/posts/user/" + post.getAuthor().getId());
+
+        mockMvc.perform(post("/api/comments").with(asReader())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"postId\":\"" + post.getId() + "\",\"content\":\"New\"}"))
+                .andExpect(status().isOk());
+
+        assertThat(etag("/api/posts")).isNotEqualTo(all);
+        assertThat(etag("/api/posts/topic/" + post.getTopic().getId())).isNotEqualTo(byTopic);
+        assertThat(etag("/api/posts/user/" + post.getAuthor().getId())).isNotEqualTo(byAuthor);
+    }
+
+    private String etag(String path) throws Exception {
+        return mockMvc.perform(get(path).with(asReader())).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void assertStatementCount(long expected, MockHttpServletRequestBuilder request) throws Exception {
+        assertStatementCount(expected, request, HttpStatus.OK);
+    }
+
+    private void assertStatementCount(long expected, MockHttpServletRequestBuilder request, HttpStatus expectedStatus)
+            throws Exception {
+        MvcResult result;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            result = mockMvc.perform(request.with(asReader()))
+                    .andExpect(status().is(expectedStatus.value()))
+                    .andReturn();
+
+            assertThat(scope.count())
+                    .as("SQL statements for %s: %s", request.buildRequest(null).getRequestURI(), scope.fingerprints())
+                    .isEqualTo(expected);
+        }
+        assertThat(result.getResponse().getHeader(SqlBudgetFilter.HEADER)).isEqualTo(String.valueOf(expected));
+    }
+
+    private RequestPostProcessor asReader() {
+        return authentication(TestData.login(reader));
+    }
+}
@@ -0,0 +1,80 @@
+package com.orion.prototype.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.orion.prototype.exception.ServiceBusyException;
+
+class PasswordHasherTests {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        hasher.shutdown();
+    }
+
+    @Test
+    void rejectsWithRetryAfterWhenQueueIsFull() throws Exception {
+        // One thread, one queue slot: the third concurrent call must be rejected
+        hasher = new PasswordHasher(blockingEncoder(), 1, 1, 2);
+        CompletableFuture.runAsync(() -> hasher.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> hasher.encode("queued"));
+        while (hasher.queueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> hasher.encode("rejected"))
+                .isInstanceOfSatisfying(ServiceBusyException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+                });
+        assertThat(hasher.rejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void flagsHashesBelowConfiguredCost() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(5), 1, 1, 1);
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(hasher.matches("secret", weak)).isTrue();
+        assertThat(hasher.needsRehash(weak)).isTrue();
+        assertThat(hasher.needsRehash(hasher.encode("secret"))).isFalse();
+        assertThat(hasher.hashCount()).isEqualTo(2);
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
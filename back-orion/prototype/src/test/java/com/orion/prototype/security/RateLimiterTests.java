@@ -0,0 +1,83 @@
+package com.orion.prototype.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtConfiguredRate() {
+        // 3 tokens, one more every second
+        RateLimiter limiter = new RateLimiter(3, 60, 1_000);
+        long now = 0;
+
+        assertThat(limiter.tryAcquire("ip", now)).isZero();
+        assertThat(limiter.tryAcquire("ip", now)).isZero();
+        assertThat(limiter.tryAcquire("ip", now)).isZero();
+        assertThat(limiter.tryAcquire("ip", now)).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire("other", now)).isZero();
+
+        assertThat(limiter.tryAcquire("ip", now + SECOND)).isZero();
+        assertThat(limiter.tryAcquire("ip", now + SECOND)).isPositive();
+        assertThat(limiter.rejectedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsMemoryBoundedUnderManyKeys() {
+        RateLimiter limiter = new RateLimiter(1, 1, 160);
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("key-" + i, 0);
+        }
+        assertThat(limiter.size()).isLessThanOrEqualTo(160);
+    }
+
+    @Test
+    void keepsActiveBucketsAndLimitsNewKeysTogetherWhenFull() {
+        // One key per stripe, one token per minute
+        RateLimiter limiter = new RateLimiter(1, 1, 16);
+        for (int i = 0; i < 100_000; i++) {
+            limiter.tryAcquire("key-" + i, 0);
+        }
+
+        // key-0 was admitted first: a flood of new keys does not reset it
+        assertThat(limiter.tryAcquire("key-0", 0)).isPositive();
+        assertThat(limiter.size()).isLessThanOrEqualTo(16);
+        assertThat(limiter.overflowCount()).isPositive();
+        assertThat(limiter.tryAcquire("key-new", 0)).isPositive();
+
+        // Once refilled, buckets are idle and make room again
+        long refilled = TimeUnit.MINUTES.toNanos(1) + SECOND;
+        assertThat(limiter.tryAcquire("key-new", refilled)).isZero();
+        assertThat(limiter.tryAcquire("key-new", refilled)).isPositive();
+    }
+
+    @Test
+    void noisyKeyInOverflowDoesNotThrottleOtherNewKeys() {
+        // One key per stripe, already taken and active
+        RateLimiter limiter = new RateLimiter(1, 1, 16);
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire("key-" + i, 0);
+        }
+        assertThat(limiter.size()).isEqualTo(16);
+        long overflowed = limiter.overflowCount();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("noisy", 0);
+        }
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (limiter.tryAcquire("newcomer-" + i, 0) == 0) {
+                allowed++;
+            }
+        }
+
+        assertThat(limiter.overflowCount()).isGreaterThan(overflowed);
+        // Only keys sharing the noisy key's overflow bucket, or one already used, are refused
+        assertThat(allowed).isGreaterThan(50);
+    }
+}
@@ -0,0 +1,42 @@
+package com.orion.prototype.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TokenDenylistTests {
+
+    @Test
+    void revokedTokensAreRefusedUntilTheyExpire() throws InterruptedException {
+        TokenDenylist denylist = new TokenDenylist(1_000);
+        long now = System.currentTimeMillis();
+        denylist.revoke("live", now + 60_000);
+        denylist.revoke("soon", now + 50);
+        denylist.revoke("already-expired", now - 1);
+
+        assertThat(denylist.isRevoked("live")).isTrue();
+        assertThat(denylist.isRevoked("soon")).isTrue();
+        assertThat(denylist.isRevoked("already-expired")).isFalse();
+        assertThat(denylist.isRevoked("other")).isFalse();
+
+        Thread.sleep(100);
+        denylist.purgeExpired();
+
+        assertThat(denylist.size()).isEqualTo(1);
+        assertThat(denylist.isRevoked("live")).isTrue();
+        assertThat(denylist.isRevoked("soon")).isFalse();
+    }
+
+    @Test
+    void falsePositivesStayRareAtExpectedSize() {
+        TokenDenylist denylist = new TokenDenylist(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            denylist.revoke("revoked-" + i, Long.MAX_VALUE);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(denylist.isRevoked("live-" + i)).isFalse();
+        }
+        // About 1% expected, never confirmed as revoked thanks to the exact set
+        assertThat(denylist.falsePositiveCount()).isLessThan(300);
+    }
+}
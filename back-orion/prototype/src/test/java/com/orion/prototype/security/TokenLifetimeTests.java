@@ -0,0 +1,163 @@
+package com.orion.prototype.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orion.prototype.TestData;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.RefreshTokenRepository;
+import com.orion.prototype.repository.UserRepository;
+import com.orion.prototype.service.UserService;
+
+/**
+ * Access tokens end with the claims they carry: a profile change, a logout
+ * or the deletion of the user makes tokens issued before it answer 401, even
+ * when the verified token is served from the cache, while the token returned
+ * with the change is accepted.
+ */
+@Import(TestData.class)
+@SpringBootTest(properties = "app.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class TokenLifetimeTests {
+
+    private static final String PASSWORD = "secret1";
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private TokenVersions tokenVersions;
+
+    private Topic java;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testData.reset();
+
+        java = testData.topic("java");
+        mockMvc.perform(json(post("/api/auth/register"),
+                Map.of("username", "alice", "email", "alice@orion.dev", "password", PASSWORD)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void profileChangeRejectsOlderTokensAndAcceptsTheNewOne() throws Exception {
+        String before = login();
+        mockMvc.perform(get("/api/auth/me").with(bearer(before))).andExpect(status().isOk());
+
+        JsonNode updated = body(mockMvc.perform(json(patch("/api/auth/me").with(bearer(before)),
+                Map.of("username", "alice2", "password", PASSWORD))).andExpect(status().isOk()).andReturn()
+                .getResponse().getContentAsString());
+        String after = updated.get("accessToken").asText();
+
+        mockMvc.perform(get("/api/auth/me").with(bearer(before))).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/auth/me").with(bearer(after)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("alice2"));
+    }
+
+    @Test
+    void revokedTokenIsRejectedWhenServedFromTheCache() throws Exception {
+        String token = login();
+        mockMvc.perform(post("/api/auth/logout").with(bearer(token))).andExpect(status().isNoContent());
+
+        // The first call verifies the token again and caches it, the second one is a cache hit
+        mockMvc.perform(get("/api/auth/me").with(bearer(token))).andExpect(status().isUnauthorized());
+        long hits = tokenCache.hits();
+        mockMvc.perform(get("/api/auth/me").with(bearer(token))).andExpect(status().isUnauthorized());
+
+        assertThat(tokenCache.hits()).isGreaterThan(hits);
+    }
+
+    @Test
+    void staleVersionIsRejectedWhenServedFromTheCache() throws Exception {
+        String token = login();
+        mockMvc.perform(get("/api/auth/me").with(bearer(token))).andExpect(status().isOk());
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+
+        // A newer version without evicting the cache: the cached principal still carries the old one
+        tokenVersions.update(alice.getId(), alice.getTokenVersion() + 1);
+        long hits = tokenCache.hits();
+        mockMvc.perform(get("/api/auth/me").with(bearer(token))).andExpect(status().isUnauthorized());
+
+        assertThat(tokenCache.hits()).isGreaterThan(hits);
+    }
+
+    @Test
+    void deletedUserTokensAreRejected() throws Exception {
+        String token = login();
+        mockMvc.perform(get("/api/auth/me").with(bearer(token))).andExpect(status().isOk());
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        // Refresh tokens reference the user
+        refreshTokenRepository.deleteAllByUser(alice);
+
+        userService.deleteUser(alice.getId());
+
+        mockMvc.perform(json(post("/api/subscriptions").with(bearer(token)), Map.of("topicId", java.getId().toString())))
+                .andExpect(status().isUnauthorized());
+        assertThat(userRepository.existsById(alice.getId())).isFalse();
+    }
+
+    private String login() throws Exception {
+        String response = mockMvc.perform(json(post("/api/auth/login"),
+                Map.of("identifier", "alice", "password", PASSWORD)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return body(response).get("accessToken").asText();
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Map<String, String> body)
+            throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+
+    private JsonNode body(String json) throws Exception {
+        return objectMapper.readTree(json);
+    }
+
+    private static RequestPostProcessor bearer(String token) {
+        return request -> {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            return request;
+        };
+    }
+}
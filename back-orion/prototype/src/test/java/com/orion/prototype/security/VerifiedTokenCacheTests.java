@@ -0,0 +1,103 @@
+package com.orion.prototype.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class VerifiedTokenCacheTests {
+
+    @Test
+    void tokensAreServedUntilTheirExpiration() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        long now = System.currentTimeMillis();
+        cache.put("live", user(1L), now + 60_000);
+        cache.put("soon", user(2L), now + 50);
+        cache.put("already-expired", user(3L), now - 1);
+
+        assertThat(cache.get("live")).isEqualTo(user(1L));
+        assertThat(cache.get("soon")).isEqualTo(user(2L));
+        assertThat(cache.get("already-expired")).isNull();
+        assertThat(cache.get("other")).isNull();
+
+        Thread.sleep(100);
+
+        assertThat(cache.get("soon")).isNull();
+        assertThat(cache.get("live")).isEqualTo(user(1L));
+        assertThat(cache.hits()).isEqualTo(3);
+        assertThat(cache.misses()).isEqualTo(3);
+    }
+
+    @Test
+    void purgeDropsExpiredEntries() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        long now = System.currentTimeMillis();
+        cache.put("live", user(1L), now + 60_000);
+        cache.put("soon", user(2L), now + 50);
+
+        Thread.sleep(100);
+        cache.purgeExpired();
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("live")).isEqualTo(user(1L));
+    }
+
+    @Test
+    void sizeStaysBoundedUnderUniqueTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("token-" + i, user((long) i), expiresAt);
+            assertThat(cache.size()).isLessThanOrEqualTo(100);
+        }
+        // The latest token is always kept
+        assertThat(cache.get("token-9999")).isEqualTo(user(9_999L));
+    }
+
+    @Test
+    void fullCacheDropsExpiredEntriesFirst() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            cache.put("live-" + i, user((long) i), now + 60_000);
+        }
+        for (int i = 0; i < 5; i++) {
+            cache.put("soon-" + i, user((long) i), now + 50);
+        }
+
+        Thread.sleep(100);
+        cache.put("new", user(42L), now + 60_000);
+
+        assertThat(cache.size()).isEqualTo(6);
+        for (int i = 0; i < 5; i++) {
+            assertThat(cache.get("live-" + i)).isNotNull();
+        }
+    }
+
+    @Test
+    void invalidationDropsTokensOfTheUser() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        cache.put("alice-1", user(1L), expiresAt);
+        cache.put("alice-2", user(1L), expiresAt);
+        cache.put("bob", user(2L), expiresAt);
+
+        cache.invalidateUser(1L);
+
+        assertThat(cache.get("alice-1")).isNull();
+        assertThat(cache.get("alice-2")).isNull();
+        assertThat(cache.get("bob")).isEqualTo(user(2L));
+    }
+
+    @Test
+    void zeroSizeDisablesTheCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(0);
+        cache.put("token", user(1L), System.currentTimeMillis() + 60_000);
+
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    private static AuthenticatedUser user(Long id) {
+        return new AuthenticatedUser(id, "user" + id + "@orion.dev", "user" + id, 0, "jti-" + id, Long.MAX_VALUE);
+    }
+}
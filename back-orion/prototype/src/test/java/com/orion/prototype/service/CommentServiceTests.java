@@ -0,0 +1,100 @@
+package com.orion.prototype.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.dto.CommentDto;
+import com.orion.prototype.dto.CursorPageDto;
+import com.orion.prototype.entity.Comment;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.CommentRepository;
+import com.orion.prototype.repository.PostRepository;
+
+/**
+ * Keyset pages of a comment thread: every comment is returned once, in
+ * (createdAt, id) order, including comments sharing the same timestamp.
+ */
+@Import(TestData.class)
+@SpringBootTest
+class CommentServiceTests {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        User author = testData.user("author");
+        Topic topic = testData.topic("threads");
+        post = postRepository.save(Post.builder().title("Thread").content("Contenu").author(author).topic(topic).build());
+
+        // Pairs of comments share a timestamp so the id tie-breaker is exercised
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 7; i++) {
+            commentRepository.save(Comment.builder()
+                    .content("Commentaire " + i)
+                    .createdAt(start.plusMinutes(i / 2))
+                    .author(author)
+                    .post(post)
+                    .build());
+        }
+    }
+
+    @Test
+    void pagesWalkTheWholeThreadInOrder() {
+        List<CommentDto> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDto<CommentDto> page = commentService.getCommentsPageByPost(post.getId(), cursor, 3);
+            walked.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(walked).extracting(CommentDto::content)
+                .containsExactly("Commentaire 0", "Commentaire 1", "Commentaire 2", "Commentaire 3",
+                        "Commentaire 4", "Commentaire 5", "Commentaire 6");
+        assertThat(walked).extracting(CommentDto::authorUsername).containsOnly("author");
+    }
+
+    @Test
+    void unknownPostIsNotFound() {
+        String cursor = commentService.getCommentsPageByPost(post.getId(), null, 3).nextCursor();
+
+        assertThatThrownBy(() -> commentService.getCommentsPageByPost(post.getId() + 1000, null, 3))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThatThrownBy(() -> commentService.getCommentsPageByPost(post.getId() + 1000, cursor, 3))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,117 @@
+package com.orion.prototype.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.config.SqlStatementCounter;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.CommentRepository;
+import com.orion.prototype.repository.PostRepository;
+
+/**
+ * Bulk import: original dates are kept, inserts go out in JDBC batches, and
+ * a bad line only rolls back its own batch.
+ */
+@Import(TestData.class)
+@SpringBootTest(properties = "app.import.batch-size=4")
+class ImportServiceTests {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private User author;
+    private Topic topic;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        author = testData.user("importer");
+        topic = testData.topic("imports");
+    }
+
+    @Test
+    void importsPostsAndCommentsInBatches() throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            lines.append(line("Post " + i, "2021-03-0" + (i + 1) + "T10:00:00", 3)).append('\n');
+        }
+
+        ImportService.Result result;
+        int statements;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            result = importService.importPosts(stream(lines.toString()));
+            statements = scope.count();
+        }
+
+        assertThat(result.posts()).isEqualTo(8);
+        assertThat(result.comments()).isEqualTo(24);
+        assertThat(postRepository.count()).isEqualTo(8);
+        assertThat(commentRepository.count()).isEqualTo(24);
+        // 2 batches of 4 posts: author check, ids and one insert statement per table, far below 32 rows
+        assertThat(statements).isLessThan(16);
+
+        List<Post> posts = postRepository.findAll();
+        assertThat(posts).extracting(Post::getCreatedAt).contains(LocalDateTime.of(2021, 3, 1, 10, 0));
+    }
+
+    @Test
+    void invalidLineRollsBackItsBatchOnly() {
+        String lines = String.join("\n",
+                line("A", null, 1), line("B", null, 1), line("C", null, 1), line("D", null, 1),
+                line("E", null, 1),
+                "{\"title\":\"F\",\"content\":\"c\",\"topicId\":" + topic.getId() + ",\"authorId\":999999}");
+
+        assertThatThrownBy(() -> importService.importPosts(stream(lines)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Ligne 6");
+
+        assertThat(postRepository.count()).isEqualTo(4);
+        assertThat(commentRepository.count()).isEqualTo(4);
+    }
+
+    private String line(String title, String createdAt, int comments) {
+        StringBuilder json = new StringBuilder("{\"title\":\"").append(title)
+                .append("\",\"content\":\"Contenu\",\"topicId\":").append(topic.getId())
+                .append(",\"authorId\":").append(author.getId());
+        if (createdAt != null) {
+            json.append(",\"createdAt\":\"").append(createdAt).append('"');
+        }
+        json.append(",\"comments\":[");
+        for (int i = 0; i < comments; i++) {
+            json.append(i > 0 ? "," : "").append("{\"content\":\"Commentaire ").append(i)
+                    .append("\",\"authorId\":").append(author.getId()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static ByteArrayInputStream stream(String lines) {
+        return new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8));
+    }
+}
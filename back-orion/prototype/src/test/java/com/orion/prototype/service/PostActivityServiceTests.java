@@ -0,0 +1,170 @@
+package com.orion.prototype.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.dto.PostSummaryDto;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.PostRepository;
+
+/**
+ * Denormalized comment counts: concurrent increments are never lost while
+ * flushes run, and summaries read and sort by the flushed values.
+ */
+@Import(TestData.class)
+@SpringBootTest(properties = "app.posts.activity.flush-ms=3600000")
+class PostActivityServiceTests {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private PostActivityService postActivityService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    private User author;
+    private Topic topic;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        author = testData.user("author");
+        topic = testData.topic("activity");
+    }
+
+    @Test
+    void concurrentIncrementsAreAllFlushed() throws Exception {
+        Post post = newPost("Hot", LocalDateTime.of(2024, 1, 1, 0, 0));
+        LocalDateTime latest = LocalDateTime.of(2024, 6, 1, 0, 0);
+        int threads = 4;
+        int perThread = 5_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            // Flushes race with the writers the whole time
+            Future<?> flusher = executor.submit(() -> {
+                while (writing.get()) {
+                    postActivityService.flush();
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        postActivityService.onCommentAdded(post.getId(), latest.minusSeconds(thread * perThread + i));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            flusher.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        postActivityService.flush();
+
+        Post flushed = postRepository.findById(post.getId()).orElseThrow();
+        assertThat(flushed.getCommentCount()).isEqualTo((long) threads * perThread);
+        assertThat(flushed.getLastActivityAt()).isEqualTo(latest);
+    }
+
+    @Test
+    void failedFlushKeepsItsCounts() {
+        Post post = newPost("Retenu", LocalDateTime.of(2024, 1, 1, 0, 0));
+        postActivityService.onCommentAdded(post.getId(), LocalDateTime.of(2024, 2, 1, 0, 0));
+
+        // The update fails while the column is missing
+        jdbcTemplate.execute("alter table posts alter column comment_count rename to comment_count_hidden");
+        try {
+            postActivityService.flush();
+        } finally {
+            jdbcTemplate.execute("alter table posts alter column comment_count_hidden rename to comment_count");
+        }
+        postActivityService.onCommentAdded(post.getId(), LocalDateTime.of(2024, 3, 1, 0, 0));
+        postActivityService.flush();
+
+        Post flushed = postRepository.findById(post.getId()).orElseThrow();
+        assertThat(flushed.getCommentCount()).isEqualTo(2);
+        assertThat(flushed.getLastActivityAt()).isEqualTo(LocalDateTime.of(2024, 3, 1, 0, 0));
+    }
+
+    @Test
+    void summariesSortByLastActivity() {
+        Post quiet = newPost("Calme", LocalDateTime.of(2024, 1, 2, 0, 0));
+        Post busy = newPost("Actif", LocalDateTime.of(2024, 1, 1, 0, 0));
+
+        Authentication authentication = TestData.login(author);
+        commentService.addComment(busy.getId(), "Un", authentication);
+        commentService.addComment(busy.getId(), "Deux", authentication);
+
+        // Nothing is visible before the flush
+        assertThat(postRepository.findById(busy.getId()).orElseThrow().getCommentCount()).isZero();
+        postActivityService.flush();
+
+        List<PostSummaryDto> summaries = postService.getAllPostSummaries("activity", null, null, 10).items();
+        assertThat(summaries).extracting(PostSummaryDto::title).containsExactly("Actif", "Calme");
+        assertThat(summaries).extracting(PostSummaryDto::commentCount).containsExactly(2L, 0L);
+        assertThat(quiet.getLastActivityAt()).isEqualTo(quiet.getCreatedAt());
+    }
+
+    @Test
+    void backfillComputesRowsWithoutActivity() {
+        Post post = newPost("Ancien", LocalDateTime.of(2020, 1, 1, 0, 0));
+        jdbcTemplate.update("insert into comments (id, content, created_at, version, author_id, post_id) "
+                + "values (900001, 'a', ?, 0, ?, ?), (900002, 'b', ?, 0, ?, ?)",
+                LocalDateTime.of(2020, 1, 2, 0, 0), author.getId(), post.getId(),
+                LocalDateTime.of(2020, 1, 3, 0, 0), author.getId(), post.getId());
+        // As for rows written before the columns existed
+        jdbcTemplate.update("update posts set last_activity_at = null where id = ?", post.getId());
+
+        postActivityService.backfill();
+
+        Post computed = postRepository.findById(post.getId()).orElseThrow();
+        assertThat(computed.getCommentCount()).isEqualTo(2);
+        assertThat(computed.getLastActivityAt()).isEqualTo(LocalDateTime.of(2020, 1, 3, 0, 0));
+    }
+
+    private Post newPost(String title, LocalDateTime createdAt) {
+        return postRepository.save(Post.builder()
+                .title(title)
+                .content("Contenu")
+                .createdAt(createdAt)
+                .author(author)
+                .topic(topic)
+                .build());
+    }
+}
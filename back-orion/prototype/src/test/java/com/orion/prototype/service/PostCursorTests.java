@@ -0,0 +1,33 @@
+package com.orion.prototype.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ResponseStatusException;
+
+class PostCursorTests {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Test
+    void roundTripsFieldDirectionValueAndId() {
+        String token = PostCursor.of("createdAt", Sort.Direction.DESC, AT, 42L).encode();
+
+        assertThat(PostCursor.decode(token, "createdAt", Sort.Direction.DESC))
+                .isEqualTo(PostCursor.of("createdAt", Sort.Direction.DESC, AT, 42L));
+    }
+
+    @Test
+    void rejectsCursorReplayedWithAnotherDirectionOrField() {
+        String token = PostCursor.of("title", Sort.Direction.ASC, "Java", 7L).encode();
+
+        assertThatThrownBy(() -> PostCursor.decode(token, "title", Sort.Direction.DESC))
+                .isInstanceOf(ResponseStatusException.class).hasMessageContaining("Curseur invalide");
+        assertThatThrownBy(() -> PostCursor.decode(token, "author", Sort.Direction.ASC))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.orion.prototype.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.config.SqlStatementCounter;
+import com.orion.prototype.entity.RefreshToken;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.RefreshTokenRepository;
+
+/**
+ * Only the SHA-256 of a refresh token reaches the database, refreshes look
+ * the token up by that hash, and the purge deletes expired rows only, in
+ * batches.
+ */
+@Import(TestData.class)
+@SpringBootTest
+class RefreshTokenServiceTests {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        alice = testData.user("alice");
+    }
+
+    @Test
+    void onlyTheHashIsStored() {
+        String token = refreshTokenService.createForUser(alice);
+
+        List<String> stored = jdbcTemplate.queryForList("select token from refresh_tokens", String.class);
+
+        assertThat(stored).containsExactly(sha256(token));
+        assertThat(stored.get(0)).isNotEqualTo(token).doesNotContain(token);
+    }
+
+    @Test
+    void refreshLooksTheTokenUpByItsHash() {
+        String token = refreshTokenService.createForUser(alice);
+
+        RefreshToken found;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            found = refreshTokenService.validate(token);
+            // One select by hash, the user joined
+            assertThat(scope.count()).isEqualTo(1);
+        }
+        assertThat(found.getUser().getUsername()).isEqualTo("alice");
+        assertThat(refreshTokenRepository.findByTokenHash(sha256(token))).isPresent();
+
+        // The stored value is not a token: hashed again, it matches nothing
+        String stored = jdbcTemplate.queryForObject("select token from refresh_tokens", String.class);
+        assertThatThrownBy(() -> refreshTokenService.validate(stored))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED));
+    }
+
+    @Test
+    void purgeDeletesExpiredRowsOnlyInBatches() {
+        RefreshTokenService service = new RefreshTokenService(refreshTokenRepository, 168, 2);
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            save("expired-" + i, now.minus(i + 1, ChronoUnit.HOURS));
+        }
+        save("live-1", now.plus(1, ChronoUnit.HOURS));
+        save("live-2", now.plus(2, ChronoUnit.HOURS));
+
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            service.purgeExpired();
+            // Batches of 2, 2 and 1: a select and a delete each
+            assertThat(scope.count()).isEqualTo(6);
+        }
+
+        assertThat(refreshTokenRepository.findAll())
+                .extracting(RefreshToken::getTokenHash)
+                .containsExactlyInAnyOrder(sha256("live-1"), sha256("live-2"));
+    }
+
+    @Test
+    void rowsStoredBeforeHashingAreDeleted() {
+        String token = refreshTokenService.createForUser(alice);
+        // Raw UUID written by earlier versions
+        jdbcTemplate.update("insert into refresh_tokens (token, expiry_date, user_id) values (?, ?, ?)",
+                "0b4f8a3e-6f43-4c1e-9a53-2f1e8c7d9b10", Timestamp.from(Instant.now().plusSeconds(3_600)),
+                alice.getId());
+
+        refreshTokenService.deleteUnhashed();
+
+        assertThat(jdbcTemplate.queryForList("select token from refresh_tokens", String.class))
+                .containsExactly(sha256(token));
+    }
+
+    private void save(String name, Instant expiryDate) {
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(sha256(name))
+                .expiryDate(expiryDate)
+                .user(alice)
+                .build());
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.orion.prototype.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * BM25 index over posts and comments: ranking, topic filter, replacement,
+ * removal and compaction of tombstoned documents.
+ */
+class SearchIndexTests {
+
+    private static final int POSTS = 3000;
+
+    @Test
+    void postMatchesRankAboveCommentMatches() {
+        SearchIndex index = new SearchIndex();
+        index.indexPost(1, 10, "Virtual threads", "Pinning on synchronized blocks");
+        index.indexPost(2, 10, "Records", "Compact constructors");
+        index.indexComment(2, 100, "Virtual threads would help here");
+
+        assertThat(index.search("virtual threads", null, 10)).extracting(SearchIndex.Hit::postId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void topicFilterFollowsMovedPostsAndTheirComments() {
+        SearchIndex index = new SearchIndex();
+        index.indexPost(1, 10, "Garbage collectors", "G1 or ZGC");
+        index.indexComment(1, 100, "Shenandoah too");
+
+        index.indexPost(1, 20, "Garbage collectors", "G1 or ZGC");
+
+        assertThat(index.search("shenandoah", 10L, 10)).isEmpty();
+        assertThat(index.search("shenandoah", 20L, 10)).extracting(SearchIndex.Hit::postId).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void replacedTextIsNoLongerFound() {
+        SearchIndex index = new SearchIndex();
+        index.indexPost(1, 10, "Draft", "Accents éèà");
+        index.indexPost(1, 10, "Final", "Nothing left");
+
+        assertThat(index.search("draft", null, 10)).isEmpty();
+        assertThat(index.search("accents", null, 10)).isEmpty();
+        assertThat(index.search("final", null, 10)).extracting(SearchIndex.Hit::postId).containsExactly(1L);
+    }
+
+    @Test
+    void commentIndexedTwiceCountsOnce() {
+        SearchIndex once = new SearchIndex();
+        once.indexPost(1, 10, "Streams", "Collectors");
+        once.indexComment(1, 100, "Gatherers are coming");
+        SearchIndex twice = new SearchIndex();
+        twice.indexPost(1, 10, "Streams", "Collectors");
+        twice.indexComment(1, 100, "Gatherers are coming");
+        twice.indexComment(1, 100, "Gatherers are coming");
+
+        assertThat(twice.search("gatherers", null, 10)).isEqualTo(once.search("gatherers", null, 10));
+    }
+
+    @Test
+    void removedPostTakesItsCommentsAlong() {
+        SearchIndex index = new SearchIndex();
+        index.indexPost(1, 10, "Loom", "Structured concurrency");
+        index.indexComment(1, 100, "Scoped values");
+
+        index.removePost(1);
+
+        assertThat(index.search("loom scoped", null, 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void scoresIgnoreTombstones() {
+        SearchIndex fresh = new SearchIndex();
+        fresh.indexPost(1, 10, "Alpha", "release notes");
+        SearchIndex withTombstones = new SearchIndex();
+        withTombstones.indexPost(1, 10, "Alpha", "release notes");
+        // Below the compaction threshold, so the removed documents stay as tombstones
+        for (long post = 2; post <= 500; post++) {
+            withTombstones.indexPost(post, 10, "Filler", "release");
+            withTombstones.removePost(post);
+        }
+
+        assertThat(withTombstones.search("alpha release", null, 10))
+                .isEqualTo(fresh.search("alpha release", null, 10));
+    }
+
+    @Test
+    void compactionKeepsChainsThatCrossTombstones() {
+        SearchIndex index = new SearchIndex();
+        for (long post = 1; post <= 10; post++) {
+            index.indexPost(post, 10, "Post", "body");
+        }
+        index.indexPost(11, 10, "Eleven", "body");
+        // Renumbered into the slot of the first version of post 11
+        index.indexComment(1, 100, "Giraffe");
+        index.indexComment(11, 101, "Zebra");
+        index.indexPost(11, 10, "Eleven", "again");
+        for (long post = 100; post < 100 + 2 * POSTS; post++) {
+            index.indexPost(post, 10, "Filler", "body");
+            index.removePost(post);
+        }
+
+        index.removePost(11);
+        assertThat(index.search("zebra", null, 10)).isEmpty();
+        assertThat(index.search("post", null, 20)).hasSize(10);
+        assertThat(index.search("giraffe", null, 10)).extracting(SearchIndex.Hit::postId).containsExactly(1L);
+
+        index.removePost(1);
+        assertThat(index.search("giraffe", null, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(9);
+    }
+
+    @Test
+    void compactionKeepsEveryPostWithItsComments() {
+        SearchIndex index = new SearchIndex();
+        for (long post = 1; post <= POSTS; post++) {
+            index.indexPost(post, 10, "Post", "first version");
+            index.indexComment(post, post, "c" + post);
+            // Replacing the post leaves a tombstone inside its chain of documents
+            index.indexPost(post, 10, "Post", "second version");
+        }
+        // Enough tombstones to trigger a compaction
+        for (long post = 1; post <= POSTS; post += 3) {
+            index.removePost(post);
+        }
+
+        for (long post = 1; post <= POSTS; post++) {
+            List<SearchIndex.Hit> hits = index.search("c" + post, null, 10);
+            if (post % 3 == 1) {
+                assertThat(hits).isEmpty();
+            } else {
+                assertThat(hits).extracting(SearchIndex.Hit::postId).containsExactly(post);
+            }
+        }
+
+        for (long post = 1; post <= POSTS; post++) {
+            index.removePost(post);
+            assertThat(index.search("c" + post, null, 10)).isEmpty();
+        }
+        assertThat(index.size()).isZero();
+    }
+}
@@ -0,0 +1,162 @@
+package com.orion.prototype.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.config.SqlStatementCounter;
+import com.orion.prototype.dto.SubscriptionDto;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.repository.SubscriptionRepository;
+import com.orion.prototype.security.AuthenticatedUser;
+
+/**
+ * Subscriptions served from the per-user cache: reads and membership checks
+ * skip the database once loaded, and every change invalidates the entry.
+ */
+@Import(TestData.class)
+@SpringBootTest
+class SubscriptionServiceTests {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private TopicStats topicStats;
+
+    private Authentication alice;
+    private Authentication bob;
+    private Topic java;
+    private Topic go;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        alice = TestData.login(testData.user("alice"));
+        bob = TestData.login(testData.user("bob"));
+        java = testData.topic("java");
+        go = testData.topic("go");
+    }
+
+    @Test
+    void listIsServedFromCacheAndRefreshedOnChange() {
+        SubscriptionDto first = subscriptionService.subscribe(java.getId(), alice);
+        subscriptionService.subscribe(go.getId(), alice);
+
+        assertThat(subscriptionService.getMySubscriptions(alice))
+                .extracting(SubscriptionDto::topicName).containsExactlyInAnyOrder("java", "go");
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            assertThat(subscriptionService.getMySubscriptions(alice)).hasSize(2);
+            assertThat(scope.count()).isZero();
+        }
+
+        subscriptionService.unsubscribe(first.id(), alice);
+        assertThat(subscriptionService.getMySubscriptions(alice))
+                .extracting(SubscriptionDto::topicName).containsExactly("go");
+    }
+
+    @Test
+    void duplicateSubscriptionIsRejectedWithoutQuery() {
+        subscriptionService.subscribe(java.getId(), alice);
+        subscriptionService.getMySubscriptions(alice);
+
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            assertThatThrownBy(() -> subscriptionService.subscribe(java.getId(), alice))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+            assertThat(scope.count()).isZero();
+        }
+    }
+
+    @Test
+    void unsubscribeChecksOwnership() {
+        SubscriptionDto bobs = subscriptionService.subscribe(java.getId(), bob);
+
+        assertThatThrownBy(() -> subscriptionService.unsubscribe(bobs.id(), alice))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN));
+        assertThatThrownBy(() -> subscriptionService.unsubscribe(bobs.id() + 1000, alice))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThat(subscriptionService.getMySubscriptions(bob)).hasSize(1);
+    }
+
+    @Test
+    void bulkSubscribeSkipsExistingTopicsInOneInsert() {
+        Topic rust = testData.topic("rust");
+        subscriptionService.subscribe(java.getId(), alice);
+        subscriptionService.getMySubscriptions(alice);
+
+        List<SubscriptionDto> after;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            after = subscriptionService.subscribeAll(List.of(java.getId(), go.getId(), rust.getId(), go.getId()), alice);
+            // Plain read of the existing rows, one insert, then the reload of the invalidated cache entry
+            assertThat(scope.count()).isEqualTo(3);
+            assertThat(scope.fingerprints().keySet()).noneMatch(sql -> sql.contains("for update"));
+        }
+        assertThat(after).extracting(SubscriptionDto::topicName).containsExactlyInAnyOrder("java", "go", "rust");
+        assertThat(subscriptionRepository.count()).isEqualTo(3);
+
+        after = subscriptionService.unsubscribeAll(List.of(java.getId(), rust.getId()), alice);
+        assertThat(after).extracting(SubscriptionDto::topicName).containsExactly("go");
+    }
+
+    @Test
+    void bulkChangesCountWhatTheStatementsDidNotWhatTheCacheHeld() {
+        subscriptionService.getMySubscriptions(alice);
+        // Written behind the cache's back, as by another instance
+        subscriptionRepository.insertAll(((AuthenticatedUser) alice.getPrincipal()).id(), List.of(java.getId()));
+        long subscribers = topicStats.get(java.getId()).subscribers();
+
+        subscriptionService.subscribeAll(List.of(java.getId(), go.getId()), alice);
+        assertThat(topicStats.get(java.getId()).subscribers()).isEqualTo(subscribers);
+        assertThat(topicStats.get(go.getId()).subscribers()).isEqualTo(1);
+
+        subscriptionRepository.deleteByUserIdAndTopicIdIn(((AuthenticatedUser) alice.getPrincipal()).id(),
+                List.of(go.getId()));
+        subscriptionService.unsubscribeAll(List.of(java.getId(), go.getId()), alice);
+        assertThat(topicStats.get(java.getId()).subscribers()).isEqualTo(subscribers - 1);
+        assertThat(topicStats.get(go.getId()).subscribers()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkSubscribeWithUnknownTopicChangesNothing() {
+        assertThatThrownBy(() -> subscriptionService.subscribeAll(List.of(java.getId(), go.getId() + 1000), alice))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThat(subscriptionRepository.count()).isZero();
+    }
+
+    @Test
+    void duplicateMissedByTheCacheIsStoppedByTheConstraint() {
+        subscriptionService.getMySubscriptions(alice);
+        // Written behind the cache's back, as by a concurrent request
+        subscriptionRepository.insertAll(((AuthenticatedUser) alice.getPrincipal()).id(), List.of(java.getId()));
+
+        assertThatThrownBy(() -> subscriptionService.subscribe(java.getId(), alice))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(subscriptionService.getMySubscriptions(alice)).hasSize(1);
+    }
+}
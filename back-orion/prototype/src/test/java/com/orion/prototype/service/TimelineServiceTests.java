@@ -0,0 +1,139 @@
+package com.orion.prototype.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.dto.CursorPageDto;
+import com.orion.prototype.dto.PostDto;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.Subscription;
+import com.orion.prototype.entity.TimelineEntry;
+import com.orion.prototype.entity.TimelineState;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.PostRepository;
+import com.orion.prototype.repository.SubscriptionRepository;
+import com.orion.prototype.repository.TimelineEntryRepository;
+import com.orion.prototype.repository.TimelineStateRepository;
+
+/**
+ * Timelines are rebuilt whenever the mode is switched back on, never grow
+ * past app.feed.timeline.max-entries posts per user and leave no gap in the
+ * feed.
+ */
+@Import(TestData.class)
+@SpringBootTest(properties = { "app.feed.timeline.enabled=true", "app.feed.timeline.max-entries=2" })
+class TimelineServiceTests {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @Autowired
+    private TimelineStateRepository timelineStateRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private PostService postService;
+
+    private User alice;
+    private List<Post> posts;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        alice = testData.user("alice");
+        Topic java = testData.topic("java");
+        subscriptionRepository.save(Subscription.builder().user(alice).topic(java).build());
+        // Saved straight through the repository: no fan-out, as if written while the mode was off
+        posts = List.of(post(alice, java, "one"), post(alice, java, "two"), post(alice, java, "three"));
+    }
+
+    @Test
+    void startupRebuildsTimelinesMissedWhileTheModeWasOff() {
+        timelineStateRepository.save(new TimelineState(TimelineState.ID, false));
+
+        timelineService.checkOnStartup();
+
+        assertThat(timelineStateRepository.findById(TimelineState.ID)).get()
+                .extracting(TimelineState::isMaintained).isEqualTo(true);
+        assertThat(timelineEntryRepository.findAll()).extracting(TimelineEntry::getPostId)
+                .containsExactlyInAnyOrder(posts.get(1).getId(), posts.get(2).getId());
+    }
+
+    @Test
+    void startupKeepsMaintainedTimelines() {
+        timelineStateRepository.save(new TimelineState(TimelineState.ID, true));
+
+        timelineService.checkOnStartup();
+
+        assertThat(timelineEntryRepository.count()).isZero();
+    }
+
+    @Test
+    void trimKeepsTheNewestEntriesOfEachTimeline() {
+        for (Post post : posts) {
+            timelineEntryRepository.save(TimelineEntry.builder().userId(alice.getId()).postId(post.getId())
+                    .topicId(post.getTopic().getId()).createdAt(post.getCreatedAt()).build());
+        }
+
+        timelineService.trim();
+
+        assertThat(timelineEntryRepository.findAll()).extracting(TimelineEntry::getPostId)
+                .containsExactlyInAnyOrder(posts.get(1).getId(), posts.get(2).getId());
+    }
+
+    @Test
+    void subscribingToATopicWithOlderPostsKeepsTheFeedComplete() {
+        timelineService.rebuild();
+        Topic go = testData.topic("go");
+        Post older = postAt(alice, go, "older", LocalDateTime.of(2020, 1, 1, 0, 0));
+        Post oldest = postAt(alice, go, "oldest", LocalDateTime.of(2019, 1, 1, 0, 0));
+
+        subscriptionService.subscribe(go.getId(), TestData.login(alice));
+
+        assertThat(timelineEntryRepository.count()).isEqualTo(2);
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDto<PostDto> page = postService.getFeed(alice.getId(), cursor, 1);
+            page.items().forEach(post -> walked.add(post.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertThat(walked).containsExactly(posts.get(2).getId(), posts.get(1).getId(), posts.get(0).getId(),
+                older.getId(), oldest.getId());
+    }
+
+    private Post postAt(User author, Topic topic, String title, LocalDateTime createdAt) {
+        return postRepository.save(Post.builder().title(title).content("...").author(author).topic(topic)
+                .createdAt(createdAt).build());
+    }
+
+    private Post post(User author, Topic topic, String title) {
+        return postRepository.save(Post.builder().title(title).content("...").author(author).topic(topic).build());
+    }
+}
@@ -0,0 +1,119 @@
+package com.orion.prototype.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.Authentication;
+
+import com.orion.prototype.TestData;
+import com.orion.prototype.config.SqlStatementCounter;
+import com.orion.prototype.dto.PostDto;
+import com.orion.prototype.dto.TopicSummaryDto;
+import com.orion.prototype.entity.Post;
+import com.orion.prototype.entity.Topic;
+import com.orion.prototype.entity.User;
+import com.orion.prototype.repository.PostRepository;
+import com.orion.prototype.security.AuthenticatedUser;
+
+/**
+ * Topic statistics: moved by the post and subscription hooks, read without
+ * SQL, and repaired by the reconciliation when rows change behind them.
+ */
+@Import(TestData.class)
+@SpringBootTest(properties = "app.topics.stats.reconcile-ms=3600000")
+class TopicStatsTests {
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private TopicService topicService;
+
+    @Autowired
+    private TopicStats topicStats;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    private User user;
+    private AuthenticatedUser principal;
+    private Authentication authentication;
+    private Topic java;
+    private Topic go;
+
+    @BeforeEach
+    void setUp() {
+        testData.reset();
+
+        user = testData.user("writer");
+        principal = TestData.principal(user);
+        authentication = TestData.login(user);
+        java = testData.topic("java");
+        go = testData.topic("go");
+        topicStats.reconcile();
+    }
+
+    @Test
+    void hooksKeepStatisticsCurrentWithoutQueries() {
+        PostDto first = postService.createPost("Un", "Contenu", java.getId(), principal);
+        PostDto second = postService.createPost("Deux", "Contenu", java.getId(), principal);
+        postService.createPost("Trois", "Contenu", go.getId(), principal);
+        subscriptionService.subscribe(java.getId(), authentication);
+        postService.deletePost(first.id(), user.getId());
+        postService.updatePost(second.id(), "Deux", "Contenu", go.getId(), user.getId());
+
+        List<TopicSummaryDto> topics;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            topics = topicService.getTopics().topics();
+            assertThat(scope.count()).isZero();
+        }
+        // Sorted by name: go, java
+        assertThat(topics).extracting(TopicSummaryDto::name).containsExactly("go", "java");
+        assertThat(topics).extracting(TopicSummaryDto::postCount).containsExactly(2L, 0L);
+        assertThat(topics).extracting(TopicSummaryDto::subscriberCount).containsExactly(0L, 1L);
+        assertThat(topics.get(0).lastPostAt()).isNotNull();
+    }
+
+    @Test
+    void etagFollowsTheContentNotTheNumberOfUpdates() {
+        String etag = topicService.getTopics().etag();
+
+        topicStats.onSubscribed(java.getId());
+        String subscribed = topicService.getTopics().etag();
+        topicStats.onUnsubscribed(java.getId());
+        topicStats.reconcile();
+
+        assertThat(subscribed).isNotEqualTo(etag);
+        assertThat(topicService.getTopics().etag()).isEqualTo(etag);
+    }
+
+    @Test
+    void reconciliationFixesDrift() {
+        String etag = topicService.getTopics().etag();
+        // Written behind the hooks' back
+        postRepository.save(Post.builder().title("Direct").content("Contenu").author(user).topic(go)
+                .createdAt(LocalDateTime.of(2024, 5, 1, 12, 0)).build());
+        assertThat(topicStats.get(go.getId()).posts()).isZero();
+
+        topicStats.reconcile();
+
+        assertThat(topicStats.get(go.getId())).isEqualTo(new TopicStats.Stats(1, 0, LocalDateTime.of(2024, 5, 1, 12, 0)));
+        assertThat(topicService.getTopics().etag()).isNotEqualTo(etag);
+    }
+}